@@ -13,4 +13,18 @@ public @interface Callback {
 
     String cancelField() default "cancelled";
 
+    int defaultPriority() default 0;
+
+    boolean instrumented() default false;
+
+    String listenerIndex() default "";
+
+    String coalesceKey() default "";
+
+    boolean pooled() default false;
+
+    boolean polymorphic() default false;
+
+    boolean journaled() default false;
+
 }
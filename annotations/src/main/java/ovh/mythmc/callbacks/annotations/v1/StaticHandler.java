@@ -0,0 +1,31 @@
+package ovh.mythmc.callbacks.annotations.v1;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a static method as a handler of the {@link Callback} class {@link #value()}.
+ * <p>
+ * Static handlers are known when the callback is generated, so its {@code invoke} method calls them
+ * directly instead of going through the handler interface. They must be declared inside the callback
+ * class (or one of its nested classes), take the callback object as their only parameter and not be private.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface StaticHandler {
+
+    Class<?> value();
+
+    /**
+     * Namespaced key of the handler ({@code "group:identifier"}).
+     */
+    String key();
+
+    /**
+     * Priority of the handler. Uses the callback's default priority if not set.
+     */
+    int priority() default 0;
+
+}
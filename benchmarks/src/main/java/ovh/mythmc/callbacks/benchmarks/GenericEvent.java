@@ -0,0 +1,14 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+@Callback
+public class GenericEvent<T> {
+
+    public final T value;
+
+    public GenericEvent(T value) {
+        this.value = value;
+    }
+
+}
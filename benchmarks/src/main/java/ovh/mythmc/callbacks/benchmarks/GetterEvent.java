@@ -0,0 +1,31 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import ovh.mythmc.callbacks.annotations.v1.Callback;
+import ovh.mythmc.callbacks.annotations.v1.CallbackField;
+
+@Callback
+@CallbackField(field = "message", getter = "getMessage()")
+@CallbackField(field = "cancelled", getter = "isCancelled()")
+public class GetterEvent {
+
+    private final String message;
+
+    private boolean cancelled;
+
+    public GetterEvent(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+}
@@ -0,0 +1,119 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+import ovh.mythmc.callbacks.key.IdentifierKey;
+import ovh.mythmc.callbacks.registry.CallbackRegistry;
+
+/**
+ * Measures invoke throughput for each kind of generated callback. Run with {@code -prof gc}
+ * to also report the allocation rate.
+ * <p>
+ * Listeners run inline so that the results measure dispatch itself rather than the
+ * scheduling behaviour of a thread pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokeBenchmark {
+
+    private static final String GROUP = "benchmark";
+
+    private static final int BATCH_SIZE = 64;
+
+    private final RecordEvent[] batch = new RecordEvent[BATCH_SIZE];
+
+    @Param({ "0", "1", "10", "100" })
+    public int handlers;
+
+    @Param({ "0", "1", "10", "100" })
+    public int listeners;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = new RecordEvent("batch", i, i, i);
+        }
+
+        PlainEventCallback.INSTANCE.setListenerExecutor(ListenerExecutors.inline());
+        RecordEventCallback.INSTANCE.setListenerExecutor(ListenerExecutors.inline());
+        GenericEventCallback.INSTANCE.setListenerExecutor(ListenerExecutors.inline());
+        NestedEventsMoveCallback.INSTANCE.setListenerExecutor(ListenerExecutors.inline());
+        GetterEventCallback.INSTANCE.setListenerExecutor(ListenerExecutors.inline());
+
+        for (int i = 0; i < handlers; i++) {
+            final IdentifierKey key = IdentifierKey.of(GROUP, "handler-" + i);
+            PlainEventCallback.INSTANCE.registerHandler(key, blackhole::consume);
+            RecordEventCallback.INSTANCE.registerHandler(key, blackhole::consume);
+            GenericEventCallback.INSTANCE.registerHandler(key, blackhole::consume, String.class);
+            NestedEventsMoveCallback.INSTANCE.registerHandler(key, blackhole::consume);
+            GetterEventCallback.INSTANCE.registerHandler(key, blackhole::consume);
+        }
+
+        for (int i = 0; i < listeners; i++) {
+            final IdentifierKey key = IdentifierKey.of(GROUP, "listener-" + i);
+            PlainEventCallback.INSTANCE.registerListener(key, (name, amount) -> blackhole.consume(amount));
+            RecordEventCallback.INSTANCE.registerListener(key, (name, x, y, z) -> blackhole.consume(x));
+            GenericEventCallback.INSTANCE.registerListener(key, blackhole::consume, String.class);
+            NestedEventsMoveCallback.INSTANCE.registerListener(key, (entityId, x, y, z) -> blackhole.consume(entityId));
+            GetterEventCallback.INSTANCE.registerListener(key, blackhole::consume);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CallbackRegistry.unregisterGroup(GROUP);
+    }
+
+    @Benchmark
+    public void plainClass() {
+        PlainEventCallback.INSTANCE.invoke(new PlainEvent("plain", 1));
+    }
+
+    @Benchmark
+    public void record() {
+        RecordEventCallback.INSTANCE.invoke(new RecordEvent("record", 1, 2, 3));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void recordBatch() {
+        RecordEventCallback.INSTANCE.invokeAll(batch);
+    }
+
+    @Benchmark
+    public void generic() {
+        GenericEventCallback.INSTANCE.invoke(new GenericEvent<>("generic"));
+    }
+
+    @Benchmark
+    public void nested() {
+        NestedEventsMoveCallback.INSTANCE.invoke(new NestedEvents.Move(1, 2, 3, 4));
+    }
+
+    @Benchmark
+    public void getters() {
+        GetterEventCallback.INSTANCE.invoke(new GetterEvent("getters"));
+    }
+
+}
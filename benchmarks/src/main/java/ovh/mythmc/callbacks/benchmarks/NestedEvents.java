@@ -0,0 +1,12 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+public interface NestedEvents {
+
+    @Callback
+    record Move(int entityId, double x, double y, double z) {
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+@Callback
+public class PlainEvent {
+
+    public final String name;
+
+    public final int amount;
+
+    public PlainEvent(String name, int amount) {
+        this.name = name;
+        this.amount = amount;
+    }
+
+}
@@ -0,0 +1,8 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+@Callback
+public record RecordEvent(String name, double x, double y, double z) {
+
+}
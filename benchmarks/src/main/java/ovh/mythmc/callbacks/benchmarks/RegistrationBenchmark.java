@@ -0,0 +1,73 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+import ovh.mythmc.callbacks.registry.CallbackRegistry;
+
+/**
+ * Measures the cost of registering and unregistering a handler and a listener while
+ * {@code registered} other subscribers are already present.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    private static final String GROUP = "benchmark";
+
+    private static final IdentifierKey CHURN_KEY = IdentifierKey.of(GROUP, "churn");
+
+    @Param({ "0", "10", "100", "1000" })
+    public int registered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < registered; i++) {
+            final IdentifierKey key = IdentifierKey.of(GROUP, "existing-" + i);
+            PlainEventCallback.INSTANCE.registerHandler(key, event -> {});
+            PlainEventCallback.INSTANCE.registerListener(key, (name, amount) -> {});
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CallbackRegistry.unregisterGroup(GROUP);
+    }
+
+    @Benchmark
+    public void handlerChurn() {
+        PlainEventCallback.INSTANCE.registerHandler(CHURN_KEY, event -> {});
+        PlainEventCallback.INSTANCE.unregisterHandlers(CHURN_KEY);
+    }
+
+    @Benchmark
+    public void listenerChurn() {
+        PlainEventCallback.INSTANCE.registerListener(CHURN_KEY, (name, amount) -> {});
+        PlainEventCallback.INSTANCE.unregisterListeners(CHURN_KEY);
+    }
+
+    @Benchmark
+    public void stringKeyChurn() {
+        PlainEventCallback.INSTANCE.registerHandler("benchmark:churn", event -> {});
+        PlainEventCallback.INSTANCE.unregisterHandlers("benchmark:churn");
+    }
+
+}
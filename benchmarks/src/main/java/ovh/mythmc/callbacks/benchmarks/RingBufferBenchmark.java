@@ -0,0 +1,81 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ovh.mythmc.callbacks.dispatch.BoundedListenerExecutor;
+import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+import ovh.mythmc.callbacks.dispatch.OverflowPolicy;
+import ovh.mythmc.callbacks.dispatch.WaitStrategy;
+import ovh.mythmc.callbacks.key.IdentifierKey;
+import ovh.mythmc.callbacks.registry.CallbackRegistry;
+
+/**
+ * Compares dispatching listeners to a background thread through a bounded executor with
+ * dispatching them through the listener ring buffer. Run with {@code -prof gc} to compare the
+ * allocation rate, which is where the two differ the most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBufferBenchmark {
+
+    private static final String GROUP = "benchmark";
+
+    private static final int CAPACITY = 1024;
+
+    private final RecordEvent event = new RecordEvent("ring", 1, 2, 3);
+
+    private BoundedListenerExecutor executor;
+
+    @Param({ "false", "true" })
+    public boolean ringBuffer;
+
+    @Param({ "1", "10" })
+    public int listeners;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        if (ringBuffer) {
+            RecordEventCallback.INSTANCE.enableListenerRingBuffer(CAPACITY, WaitStrategy.YIELDING);
+        } else {
+            executor = ListenerExecutors.bounded(CAPACITY, OverflowPolicy.BLOCK);
+            RecordEventCallback.INSTANCE.setListenerExecutor(executor);
+            RecordEventCallback.INSTANCE.setBatchListeners(true);
+        }
+
+        for (int i = 0; i < listeners; i++)
+            RecordEventCallback.INSTANCE.registerListener(IdentifierKey.of(GROUP, "listener-" + i), (name, x, y, z) -> blackhole.consume(x));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CallbackRegistry.unregisterGroup(GROUP);
+        RecordEventCallback.INSTANCE.disableListenerRingBuffer();
+        if (executor != null)
+            executor.close();
+    }
+
+    @Benchmark
+    public void invoke() {
+        RecordEventCallback.INSTANCE.invoke(event);
+    }
+
+}
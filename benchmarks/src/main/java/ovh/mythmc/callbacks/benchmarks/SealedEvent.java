@@ -0,0 +1,34 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import ovh.mythmc.callbacks.annotations.v1.Callback;
+import ovh.mythmc.callbacks.annotations.v1.StaticHandler;
+
+@Callback
+public class SealedEvent {
+
+    public int value;
+
+    public SealedEvent(int value) {
+        this.value = value;
+    }
+
+    public static final class Handlers {
+
+        @StaticHandler(value = SealedEvent.class, key = "sealed:increment", priority = 2)
+        public static void increment(SealedEvent event) {
+            event.value++;
+        }
+
+        @StaticHandler(value = SealedEvent.class, key = "sealed:double", priority = 1)
+        public static void twice(SealedEvent event) {
+            event.value *= 2;
+        }
+
+        @StaticHandler(value = SealedEvent.class, key = "sealed:negate")
+        public static void negate(SealedEvent event) {
+            event.value = -event.value;
+        }
+
+    }
+
+}
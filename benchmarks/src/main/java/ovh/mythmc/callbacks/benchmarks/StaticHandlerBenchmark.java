@@ -0,0 +1,57 @@
+package ovh.mythmc.callbacks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares calling {@code @StaticHandler} methods directly with calling the same methods
+ * through registered handlers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaticHandlerBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean registered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (!registered)
+            return;
+
+        // Same methods and keys, but registered at runtime, which disables direct calls
+        SealedEventCallback.INSTANCE.registerHandler("sealed:increment", SealedEvent.Handlers::increment, 2);
+        SealedEventCallback.INSTANCE.registerHandler("sealed:double", SealedEvent.Handlers::twice, 1);
+        SealedEventCallback.INSTANCE.registerHandler("sealed:negate", SealedEvent.Handlers::negate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SealedEventCallback.INSTANCE.unregisterHandlers("sealed:increment", "sealed:double", "sealed:negate");
+    }
+
+    @Benchmark
+    public int invoke() {
+        final SealedEvent event = new SealedEvent(1);
+        SealedEventCallback.INSTANCE.invoke(event);
+        return event.value;
+    }
+
+}
@@ -1,12 +1,28 @@
 package ovh.mythmc.callbacks.processor.v1;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
@@ -16,10 +32,15 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 
+import com.palantir.javapoet.AnnotationSpec;
 import com.palantir.javapoet.ArrayTypeName;
 import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.CodeBlock;
 import com.palantir.javapoet.FieldSpec;
 import com.palantir.javapoet.JavaFile;
 import com.palantir.javapoet.MethodSpec;
@@ -28,11 +49,27 @@ import com.palantir.javapoet.ParameterizedTypeName;
 import com.palantir.javapoet.TypeName;
 import com.palantir.javapoet.TypeSpec;
 import com.palantir.javapoet.TypeVariableName;
+import com.palantir.javapoet.WildcardTypeName;
 
 import ovh.mythmc.callbacks.annotations.v1.Callback;
 import ovh.mythmc.callbacks.annotations.v1.CallbackField;
 import ovh.mythmc.callbacks.annotations.v1.CallbackFields;
+import ovh.mythmc.callbacks.dispatch.Coalescer;
+import ovh.mythmc.callbacks.dispatch.DroppableTask;
+import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+import ovh.mythmc.callbacks.dispatch.ListenerRingBuffer;
+import ovh.mythmc.callbacks.dispatch.WaitStrategy;
+import ovh.mythmc.callbacks.fault.FaultGuard;
+import ovh.mythmc.callbacks.fault.FaultPolicy;
+import ovh.mythmc.callbacks.journal.EventJournal;
+import ovh.mythmc.callbacks.journal.JournalCodec;
 import ovh.mythmc.callbacks.key.IdentifierKey;
+import ovh.mythmc.callbacks.metrics.CallbackInstrumentation;
+import ovh.mythmc.callbacks.metrics.CallbackMetrics;
+import ovh.mythmc.callbacks.pool.EventPool;
+import ovh.mythmc.callbacks.registry.CallbackInstance;
+import ovh.mythmc.callbacks.registry.CallbackRegistry;
+import ovh.mythmc.callbacks.registry.Registration;
 
 public final class CallbackAnnotatedClass {
 
@@ -42,6 +79,20 @@ public final class CallbackAnnotatedClass {
 
     private final static String LISTENER_SUFFIX = "CallbackListener";
 
+    private final static String ASYNC_HANDLER_SUFFIX = "CallbackAsyncHandler";
+
+    private final static String FILTERED_LISTENER_CLASS = "FilteredListener";
+
+    private final static String LISTENER_INDEX_CLASS = "ListenerIndex";
+
+    private final static String LISTENER_SLOT_CLASS = "ListenerSlot";
+
+    private final static String JOURNAL_ENTRY_CLASS = "JournalEntry";
+
+    // Names of the locals declared by the generated invoke, instrumentListener, guardListener, replayJournal and slot dispatch methods
+    private final static Set<String> RESERVED_LOCAL_NAMES = Set.of("callback", "result", "handlers", "listeners", "listener", "executor", "metrics", "key", "start", "failure", "t", "i", "guard", "faultPolicy",
+        "journal", "timestamp", "buffer", "thread");
+
     public final TypeElement typeElement;
 
     public final Name qualifiedName;
@@ -50,11 +101,46 @@ public final class CallbackAnnotatedClass {
 
     private final Name packageName;
 
-    CallbackAnnotatedClass(ProcessingEnvironment processingEnvironment, TypeElement typeElement) {
+    private final Elements elementUtils;
+
+    private final Types typeUtils;
+
+    // Sorted in the order they run in (priority, then key)
+    private final List<StaticHandlerMethod> staticHandlers;
+
+    // Model of the annotated type, read once and shared by every part of the generated class
+    private final Callback callbackAnnotation;
+
+    private final List<CallbackField> callbackFields;
+
+    private final Map<String, String> fieldGetters;
+
+    private final Map<String, TypeMirror> constructorArguments;
+
+    private final Map<String, TypeMirror> constructorParameters;
+
+    private final String cancelCheck;
+
+    // Nearest superclass with a generated callback, dispatched to when the callback is polymorphic
+    private final TypeElement superCallback;
+
+    CallbackAnnotatedClass(ProcessingEnvironment processingEnvironment, TypeElement typeElement, List<StaticHandlerMethod> staticHandlers) {
+        this.elementUtils = processingEnvironment.getElementUtils();
+        this.typeUtils = processingEnvironment.getTypeUtils();
+        this.staticHandlers = staticHandlers.stream()
+            .sorted(Comparator.comparingInt(StaticHandlerMethod::priority).reversed().thenComparing(StaticHandlerMethod::key))
+            .toList();
         this.typeElement = typeElement;
         this.qualifiedName = typeElement.getQualifiedName();
         this.simpleName = typeElement.getSimpleName();
         this.packageName = processingEnvironment.getElementUtils().getPackageOf(typeElement).getQualifiedName();
+        this.callbackAnnotation = typeElement.getAnnotation(Callback.class);
+        this.callbackFields = findCallbackFields();
+        this.fieldGetters = findFieldGetters();
+        this.constructorArguments = findConstructorArguments();
+        this.constructorParameters = findConstructorParameters();
+        this.cancelCheck = findCancelCheck();
+        this.superCallback = findSuperCallback();
     }
 
     JavaFile buildCallbackFile() {
@@ -70,6 +156,7 @@ public final class CallbackAnnotatedClass {
 
         final var callbackListenerTypeSpec = buildListenerInterface(parameters, typeVariables);
         final var callbackHandlerTypeSpec = buildHandlerInterface(objectParameter, typeVariables);
+        final var callbackAsyncHandlerTypeSpec = buildAsyncHandlerInterface(objectParameter, typeVariables);
 
         final var callbackListenerClass = ClassName.get(packageName.toString(), callbackClassName, simpleName + LISTENER_SUFFIX);
         var callbackListenerParameter = ParameterSpec.builder(callbackListenerClass, "callbackListener").build();
@@ -77,12 +164,19 @@ public final class CallbackAnnotatedClass {
         final var callbackHandlerClass = ClassName.get(packageName.toString(), callbackClassName, simpleName + HANDLER_SUFFIX);
         var callbackHandlerParameter = ParameterSpec.builder(callbackHandlerClass, "callbackHandler").build();
 
+        final var callbackAsyncHandlerClass = ClassName.get(packageName.toString(), callbackClassName, simpleName + ASYNC_HANDLER_SUFFIX);
+        var callbackAsyncHandlerParameter = ParameterSpec.builder(callbackAsyncHandlerClass, "callbackAsyncHandler").build();
+
         if (!typeVariables.isEmpty()) {
             callbackListenerParameter = ParameterSpec.builder(ParameterizedTypeName.get(callbackListenerClass, typeVariables.toArray(new TypeVariableName[typeVariables.size()])), "callbackListener").build();
             callbackHandlerParameter = ParameterSpec.builder(ParameterizedTypeName.get(callbackHandlerClass, typeVariables.toArray(new TypeVariableName[typeVariables.size()])), "callbackHandler").build();
+            callbackAsyncHandlerParameter = ParameterSpec.builder(ParameterizedTypeName.get(callbackAsyncHandlerClass, typeVariables.toArray(new TypeVariableName[typeVariables.size()])), "callbackAsyncHandler").build();
         }
 
         final Collection<ParameterSpec> typeVariableNamesAsParameters = getTypeVariableNamesAsParameterSpecs();
+        final String typeVariableArguments = typeVariableNamesAsParameters.stream()
+            .map(parameter -> ", " + parameter.name())
+            .collect(Collectors.joining());
 
         // Static instance
         var instance = FieldSpec.builder(
@@ -92,16 +186,180 @@ public final class CallbackAnnotatedClass {
             .initializer("new $T()", callbackClass)
             .build();
 
+        // Registration lock (private, so that code holding INSTANCE cannot block registrations by locking on it)
+        var registrationLock = FieldSpec.builder(Object.class, "registrationLock")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T()", Object.class)
+            .build();
+
         // Listener map
-        var mapOfCallbackListeners = ParameterizedTypeName.get(ClassName.get("java.util", "HashMap"), TypeName.get(String.class), callbackListenerClass);
+        var mapOfCallbackListeners = ParameterizedTypeName.get(ClassName.get("java.util", "HashMap"), TypeName.get(IdentifierKey.class), callbackListenerClass);
         var listenerMap = FieldSpec.builder(mapOfCallbackListeners.box(), "callbackListeners")
             .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
             .initializer("new $T<>()", HashMap.class)
             .build();
 
-        // Handler map
-        var mapOfCallbackHandlers = ParameterizedTypeName.get(ClassName.get("java.util", "HashMap"), TypeName.get(String.class), callbackHandlerClass);
+        // Listener filters and index values, for the listeners in the listener map that have one
+        var predicateOfObject = ParameterizedTypeName.get(ClassName.get(Predicate.class), WildcardTypeName.supertypeOf(objectClass));
+        var mapOfListenerFilters = ParameterizedTypeName.get(ClassName.get(HashMap.class), TypeName.get(IdentifierKey.class), predicateOfObject);
+        var listenerFilterMap = FieldSpec.builder(mapOfListenerFilters, "callbackListenerFilters")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build();
+
+        var mapOfListenerIndexValues = ParameterizedTypeName.get(HashMap.class, IdentifierKey.class, Object.class);
+        var listenerIndexMap = FieldSpec.builder(mapOfListenerIndexValues, "callbackListenerIndex")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build();
+
+        // Handler map (kept in registration order so that equal priorities run in a stable order)
+        var mapOfCallbackHandlers = ParameterizedTypeName.get(ClassName.get("java.util", "LinkedHashMap"), TypeName.get(IdentifierKey.class), callbackHandlerClass);
         var handlerMap = FieldSpec.builder(mapOfCallbackHandlers.box(), "callbackHandlers")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T<>()", LinkedHashMap.class)
+            .build();
+
+        var mapOfHandlerPriorities = ParameterizedTypeName.get(ClassName.get("java.util", "HashMap"), TypeName.get(IdentifierKey.class), TypeName.INT.box());
+        var handlerPriorityMap = FieldSpec.builder(mapOfHandlerPriorities, "handlerPriorities")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build();
+
+        // Async handlers (also kept in the handler map, so that they share its priorities and order)
+        var mapOfCallbackAsyncHandlers = ParameterizedTypeName.get(ClassName.get("java.util", "HashMap"), TypeName.get(IdentifierKey.class), callbackAsyncHandlerClass);
+        var asyncHandlerMap = FieldSpec.builder(mapOfCallbackAsyncHandlers, "callbackAsyncHandlers")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build();
+
+        var completedStage = FieldSpec.builder(ParameterizedTypeName.get(CompletableFuture.class, Void.class), "COMPLETED", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$T.completedFuture(null)", CompletableFuture.class)
+            .build();
+
+        var defaultPriority = FieldSpec.builder(TypeName.INT, "DEFAULT_PRIORITY", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$L", getCallbackAnnotation().defaultPriority())
+            .build();
+
+        // Dispatch snapshots (rebuilt while holding the lock on every registration change, read by invoke without locking)
+        var arrayOfCallbackListeners = ArrayTypeName.of(callbackListenerClass);
+        var listenerSnapshot = FieldSpec.builder(arrayOfCallbackListeners, "listeners")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .initializer("new $T[0]", callbackListenerClass)
+            .build();
+
+        final var filteredListenerClass = callbackClass.nestedClass(FILTERED_LISTENER_CLASS);
+        var arrayOfFilteredListeners = ArrayTypeName.of(filteredListenerClass);
+        var filteredListenerSnapshot = FieldSpec.builder(arrayOfFilteredListeners, "filteredListeners")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .initializer("new $T[0]", filteredListenerClass)
+            .build();
+
+        // Indexed listeners by the value of the index field (only generated when the callback declares one)
+        final String listenerIndex = getCallbackAnnotation().listenerIndex();
+        final boolean indexed = !listenerIndex.isEmpty();
+        var mapOfIndexedListeners = ParameterizedTypeName.get(ClassName.get(HashMap.class), ClassName.get(Object.class), arrayOfCallbackListeners);
+
+        // Primitive index values are looked up in a sorted array so that reading them never boxes
+        final TypeMirror listenerIndexType = indexed ? getListenerIndexType() : null;
+        final boolean primitiveIndex = listenerIndexType != null && listenerIndexType.getKind().isPrimitive() && listenerIndexType.getKind() != TypeKind.BOOLEAN;
+        final var listenerIndexClass = callbackClass.nestedClass(LISTENER_INDEX_CLASS);
+        final TypeName indexedListenersType = primitiveIndex ? listenerIndexClass : mapOfIndexedListeners;
+        var indexedListenerSnapshot = FieldSpec.builder(indexedListenersType, "indexedListeners")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .initializer(primitiveIndex ? CodeBlock.of("$T.EMPTY", listenerIndexClass) : CodeBlock.of("new $T<>()", HashMap.class))
+            .build();
+
+        var arrayOfCallbackHandlers = ArrayTypeName.of(callbackHandlerClass);
+        var handlerSnapshot = FieldSpec.builder(arrayOfCallbackHandlers, "handlers")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .initializer("new $T[0]", callbackHandlerClass)
+            .build();
+
+        // Every handler in priority order, adapted to the async pipeline (null while there are no async handlers)
+        var arrayOfCallbackAsyncHandlers = ArrayTypeName.of(callbackAsyncHandlerClass);
+        var asyncHandlerSnapshot = FieldSpec.builder(arrayOfCallbackAsyncHandlers, "asyncHandlers")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+
+        // The priority of each handler in the snapshot, so that polymorphic subtypes can merge them with their own
+        var prioritySnapshot = FieldSpec.builder(int[].class, "priorities")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .initializer("new int[0]")
+            .build();
+
+        // Listener dispatch settings
+        var listenerExecutorField = FieldSpec.builder(Executor.class, "listenerExecutor")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+
+        var batchListenersField = FieldSpec.builder(TypeName.BOOLEAN, "batchListeners")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+
+        // Polymorphic dispatch (subtype callbacks are notified whenever the handler table changes)
+        final boolean polymorphic = isPolymorphic();
+        final ClassName superCallbackClass = polymorphic ? getSuperCallbackClass() : null;
+        final ClassName superHandlerClass = polymorphic ? superCallbackClass.nestedClass(superCallback.getSimpleName() + HANDLER_SUFFIX) : null;
+        final ClassName superAsyncHandlerClass = polymorphic ? superCallbackClass.nestedClass(superCallback.getSimpleName() + ASYNC_HANDLER_SUFFIX) : null;
+        // Subtypes are only referenced weakly, so that they do not keep the class loader they come from alive
+        var weakRunnable = ParameterizedTypeName.get(WeakReference.class, Runnable.class);
+        var subtypeDispatchField = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), weakRunnable), "subtypeDispatch")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T<>()", CopyOnWriteArrayList.class)
+            .build();
+        var inheritedHandlersRefreshField = FieldSpec.builder(Runnable.class, "inheritedHandlersRefresh")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("this::refreshInheritedHandlers")
+            .build();
+
+        // Ring buffer dispatch (replaces the listener executor while set)
+        final var listenerSlotClass = callbackClass.nestedClass(LISTENER_SLOT_CLASS);
+        var ringBufferOfListeners = ParameterizedTypeName.get(ClassName.get(ListenerRingBuffer.class), objectClass, arrayOfCallbackListeners);
+        var ringBufferField = FieldSpec.builder(ringBufferOfListeners, "listenerRingBuffer")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+
+        // Coalescing (only generated when the callback declares a coalesce key)
+        final String coalesceKey = getCallbackAnnotation().coalesceKey();
+        final boolean coalescing = !coalesceKey.isEmpty();
+        var coalescerOfObject = ParameterizedTypeName.get(ClassName.get(Coalescer.class), objectClass);
+        var coalescerField = FieldSpec.builder(coalescerOfObject, "coalescer")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+
+        // Journal (only generated for journaled callbacks, records every invocation while set)
+        final boolean journaled = getCallbackAnnotation().journaled();
+        var eventJournalOfObject = ParameterizedTypeName.get(ClassName.get(EventJournal.class), objectClass);
+        var journalField = FieldSpec.builder(eventJournalOfObject, "journal")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+        final CodeBlock recordInvocation = journaled
+            ? CodeBlock.builder()
+                .addStatement("final $T journal = this.journal", eventJournalOfObject)
+                .beginControlFlow("if (journal != null)")
+                .addStatement("journal.record(callback)")
+                .endControlFlow()
+                .build()
+            : CodeBlock.of("");
+
+        // Metrics (handlers and listeners are only wrapped while metrics are set)
+        var metricsField = FieldSpec.builder(CallbackMetrics.class, "metrics")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+
+        // Fault handling (guards live as long as the registration they belong to)
+        var faultPolicyField = FieldSpec.builder(FaultPolicy.class, "faultPolicy")
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE)
+            .build();
+
+        var mapOfFaultGuards = ParameterizedTypeName.get(HashMap.class, IdentifierKey.class, FaultGuard.class);
+        var handlerGuardMap = FieldSpec.builder(mapOfFaultGuards, "handlerGuards")
+            .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("new $T<>()", HashMap.class)
+            .build();
+
+        var listenerGuardMap = FieldSpec.builder(mapOfFaultGuards, "listenerGuards")
             .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
             .initializer("new $T<>()", HashMap.class)
             .build();
@@ -115,99 +373,1137 @@ public final class CallbackAnnotatedClass {
 
         var registerListener = MethodSpec.methodBuilder("registerListener")
             .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
             .addTypeVariables(typeVariables)
             .addParameter(identifierKeyParameter)
             .addParameter(callbackListenerParameter)
             .addParameters(typeVariableNamesAsParameters)
-            .addStatement("callbackListeners.put($N.toString(), $N)", identifierKeyParameter, callbackListenerParameter)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("callbackListeners.put($N, $N)", identifierKeyParameter, callbackListenerParameter)
+            .addStatement("callbackListenerFilters.remove($N)", identifierKeyParameter)
+            .addStatement("callbackListenerIndex.remove($N)", identifierKeyParameter)
+            .addStatement("listenerGuards.remove($N)", identifierKeyParameter)
+            .addStatement("rebuildListeners()")
+            .addStatement("return $T.of($N, () -> unregisterListener($N, $N))", Registration.class, identifierKeyParameter, identifierKeyParameter, callbackListenerParameter)
+            .endControlFlow()
             .build();
 
         var registerListenerWithStringKey = MethodSpec.methodBuilder("registerListener")
             .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(String.class, "key")
+            .addParameter(callbackListenerParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .addStatement("return registerListener($T.fromString(key), $N" + typeVariableArguments + ")", IdentifierKey.class, callbackListenerParameter)
+            .build();
+
+        var filterParameter = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Predicate.class), WildcardTypeName.supertypeOf(objectParameter.type())), "filter").build();
+
+        var registerFilteredListenerBuilder = MethodSpec.methodBuilder("registerListener")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(identifierKeyParameter)
+            .addParameter(callbackListenerParameter)
+            .addParameter(filterParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("callbackListeners.put($N, $N)", identifierKeyParameter, callbackListenerParameter);
+
+        // Filters of generic callbacks are stored for every parameterization at once
+        if (typeVariables.isEmpty())
+            registerFilteredListenerBuilder.addStatement("callbackListenerFilters.put($N, $N)", identifierKeyParameter, filterParameter);
+        else
+            registerFilteredListenerBuilder
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "{$S, $S}", "unchecked", "rawtypes").build())
+                .addStatement("callbackListenerFilters.put($N, ($T) $N)", identifierKeyParameter, Predicate.class, filterParameter);
+
+        var registerFilteredListener = registerFilteredListenerBuilder
+            .addStatement("callbackListenerIndex.remove($N)", identifierKeyParameter)
+            .addStatement("listenerGuards.remove($N)", identifierKeyParameter)
+            .addStatement("rebuildListeners()")
+            .addStatement("return $T.of($N, () -> unregisterListener($N, $N))", Registration.class, identifierKeyParameter, identifierKeyParameter, callbackListenerParameter)
+            .endControlFlow()
+            .build();
+
+        var registerFilteredListenerWithStringKey = MethodSpec.methodBuilder("registerListener")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
             .addTypeVariables(typeVariables)
             .addParameter(String.class, "key")
             .addParameter(callbackListenerParameter)
+            .addParameter(filterParameter)
             .addParameters(typeVariableNamesAsParameters)
-            .addStatement("callbackListeners.put(key, $N)", callbackListenerParameter)
+            .addStatement("return registerListener($T.fromString(key), $N, $N" + typeVariableArguments + ")", IdentifierKey.class, callbackListenerParameter, filterParameter)
             .build();
 
+        var priorityParameter = ParameterSpec.builder(TypeName.INT, "priority").build();
+
+        MethodSpec registerIndexedListener = null;
+        MethodSpec registerIndexedListenerWithStringKey = null;
+        if (indexed) {
+            var indexValueParameter = ParameterSpec.builder(TypeName.get(getListenerIndexType()), "value").build();
+
+            registerIndexedListener = MethodSpec.methodBuilder("registerIndexedListener")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(Registration.class)
+                .addTypeVariables(typeVariables)
+                .addParameter(identifierKeyParameter)
+                .addParameter(indexValueParameter)
+                .addParameter(callbackListenerParameter)
+                .addParameters(typeVariableNamesAsParameters)
+                .beginControlFlow("synchronized (registrationLock)")
+                .addStatement("callbackListeners.put($N, $N)", identifierKeyParameter, callbackListenerParameter)
+                .addStatement("callbackListenerFilters.remove($N)", identifierKeyParameter)
+                .addStatement("callbackListenerIndex.put($N, $N)", identifierKeyParameter, indexValueParameter)
+                .addStatement("listenerGuards.remove($N)", identifierKeyParameter)
+                .addStatement("rebuildListeners()")
+                .addStatement("return $T.of($N, () -> unregisterListener($N, $N))", Registration.class, identifierKeyParameter, identifierKeyParameter, callbackListenerParameter)
+                .endControlFlow()
+                .build();
+
+            registerIndexedListenerWithStringKey = MethodSpec.methodBuilder("registerIndexedListener")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(Registration.class)
+                .addTypeVariables(typeVariables)
+                .addParameter(String.class, "key")
+                .addParameter(indexValueParameter)
+                .addParameter(callbackListenerParameter)
+                .addParameters(typeVariableNamesAsParameters)
+                .addStatement("return registerIndexedListener($T.fromString(key), $N, $N" + typeVariableArguments + ")", IdentifierKey.class, indexValueParameter, callbackListenerParameter)
+                .build();
+        }
+
         var registerHandler = MethodSpec.methodBuilder("registerHandler")
             .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(identifierKeyParameter)
+            .addParameter(callbackHandlerParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .addStatement("return registerHandler($N, $N, $N" + typeVariableArguments + ")", identifierKeyParameter, callbackHandlerParameter, defaultPriority)
+            .build();
+
+        var registerHandlerWithPriority = MethodSpec.methodBuilder("registerHandler")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
             .addTypeVariables(typeVariables)
             .addParameter(identifierKeyParameter)
             .addParameter(callbackHandlerParameter)
+            .addParameter(priorityParameter)
             .addParameters(typeVariableNamesAsParameters)
-            .addStatement("callbackHandlers.put($N.toString(), $N)", identifierKeyParameter, callbackHandlerParameter)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("callbackHandlers.remove($N)", identifierKeyParameter)
+            .addStatement("callbackHandlers.put($N, $N)", identifierKeyParameter, callbackHandlerParameter)
+            .addStatement("handlerPriorities.put($N, $N)", identifierKeyParameter, priorityParameter)
+            .addStatement("callbackAsyncHandlers.remove($N)", identifierKeyParameter)
+            .addStatement("handlerGuards.remove($N)", identifierKeyParameter)
+            .addStatement("rebuildHandlers()")
+            .addStatement("return $T.of($N, () -> unregisterHandler($N, $N))", Registration.class, identifierKeyParameter, identifierKeyParameter, callbackHandlerParameter)
+            .endControlFlow()
             .build();
 
         var registerHandlerWithStringKey = MethodSpec.methodBuilder("registerHandler")
             .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(String.class, "key")
+            .addParameter(callbackHandlerParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .addStatement("return registerHandler($T.fromString(key), $N, $N" + typeVariableArguments + ")", IdentifierKey.class, callbackHandlerParameter, defaultPriority)
+            .build();
+
+        var registerHandlerWithStringKeyAndPriority = MethodSpec.methodBuilder("registerHandler")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
             .addTypeVariables(typeVariables)
             .addParameter(String.class, "key")
             .addParameter(callbackHandlerParameter)
+            .addParameter(priorityParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .addStatement("return registerHandler($T.fromString(key), $N, $N" + typeVariableArguments + ")", IdentifierKey.class, callbackHandlerParameter, priorityParameter)
+            .build();
+
+        var registerAsyncHandler = MethodSpec.methodBuilder("registerAsyncHandler")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(identifierKeyParameter)
+            .addParameter(callbackAsyncHandlerParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .addStatement("return registerAsyncHandler($N, $N, $N" + typeVariableArguments + ")", identifierKeyParameter, callbackAsyncHandlerParameter, defaultPriority)
+            .build();
+
+        var registerAsyncHandlerWithPriority = MethodSpec.methodBuilder("registerAsyncHandler")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(identifierKeyParameter)
+            .addParameter(callbackAsyncHandlerParameter)
+            .addParameter(priorityParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("callbackHandlers.remove($N)", identifierKeyParameter)
+            .addStatement("callbackHandlers.put($N, startAsyncHandler($N))", identifierKeyParameter, callbackAsyncHandlerParameter)
+            .addStatement("handlerPriorities.put($N, $N)", identifierKeyParameter, priorityParameter)
+            .addStatement("callbackAsyncHandlers.put($N, $N)", identifierKeyParameter, callbackAsyncHandlerParameter)
+            .addStatement("handlerGuards.remove($N)", identifierKeyParameter)
+            .addStatement("rebuildHandlers()")
+            .addStatement("return $T.of($N, () -> unregisterAsyncHandler($N, $N))", Registration.class, identifierKeyParameter, identifierKeyParameter, callbackAsyncHandlerParameter)
+            .endControlFlow()
+            .build();
+
+        var registerAsyncHandlerWithStringKey = MethodSpec.methodBuilder("registerAsyncHandler")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(String.class, "key")
+            .addParameter(callbackAsyncHandlerParameter)
             .addParameters(typeVariableNamesAsParameters)
-            .addStatement("callbackHandlers.put(key, $N)", callbackHandlerParameter)
+            .addStatement("return registerAsyncHandler($T.fromString(key), $N, $N" + typeVariableArguments + ")", IdentifierKey.class, callbackAsyncHandlerParameter, defaultPriority)
+            .build();
+
+        var registerAsyncHandlerWithStringKeyAndPriority = MethodSpec.methodBuilder("registerAsyncHandler")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Registration.class)
+            .addTypeVariables(typeVariables)
+            .addParameter(String.class, "key")
+            .addParameter(callbackAsyncHandlerParameter)
+            .addParameter(priorityParameter)
+            .addParameters(typeVariableNamesAsParameters)
+            .addStatement("return registerAsyncHandler($T.fromString(key), $N, $N" + typeVariableArguments + ")", IdentifierKey.class, callbackAsyncHandlerParameter, priorityParameter)
+            .build();
+
+        // Used by registrations, which must not remove an entry that has been registered again since
+        var unregisterHandler = MethodSpec.methodBuilder("unregisterHandler")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackHandlerClass, "handler")
+            .beginControlFlow("synchronized (registrationLock)")
+            .beginControlFlow("if (callbackHandlers.get(key) == handler)")
+            .addStatement("unregisterHandlers(key)")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+
+        var unregisterAsyncHandler = MethodSpec.methodBuilder("unregisterAsyncHandler")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackAsyncHandlerClass, "asyncHandler")
+            .beginControlFlow("synchronized (registrationLock)")
+            .beginControlFlow("if (callbackAsyncHandlers.get(key) == asyncHandler)")
+            .addStatement("unregisterHandlers(key)")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+
+        var unregisterListener = MethodSpec.methodBuilder("unregisterListener")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackListenerClass, "listener")
+            .beginControlFlow("synchronized (registrationLock)")
+            .beginControlFlow("if (callbackListeners.get(key) == listener)")
+            .addStatement("unregisterListeners(key)")
+            .endControlFlow()
+            .endControlFlow()
             .build();
 
         var unregisterListeners = MethodSpec.methodBuilder("unregisterListeners")
             .addModifiers(Modifier.PUBLIC)
             .addParameter(ArrayTypeName.of(IdentifierKey.class), "identifiers")
             .varargs(true)
-            .addStatement("$T.stream(identifiers).forEach(key -> callbackListeners.remove(key.toString()))", Arrays.class)
+            .beginControlFlow("synchronized (registrationLock)")
+            .beginControlFlow("for ($T key : identifiers)", IdentifierKey.class)
+            .addStatement("callbackListeners.remove(key)")
+            .addStatement("callbackListenerFilters.remove(key)")
+            .addStatement("callbackListenerIndex.remove(key)")
+            .addStatement("listenerGuards.remove(key)")
+            .endControlFlow()
+            .addStatement("rebuildListeners()")
+            .endControlFlow()
+            .build();
+
+        var unregisterListenersWithStringKey = MethodSpec.methodBuilder("unregisterListeners")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ArrayTypeName.of(String.class), "identifiers")
+            .varargs(true)
+            .addStatement("unregisterListeners($T.stream(identifiers).map($T::fromString).toArray($T[]::new))", Arrays.class, IdentifierKey.class, IdentifierKey.class)
+            .build();
+
+        var unregisterHandlers = MethodSpec.methodBuilder("unregisterHandlers")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ArrayTypeName.of(IdentifierKey.class), "identifiers")
+            .varargs(true)
+            .beginControlFlow("synchronized (registrationLock)")
+            .beginControlFlow("for ($T key : identifiers)", IdentifierKey.class)
+            .addStatement("callbackHandlers.remove(key)")
+            .addStatement("handlerPriorities.remove(key)")
+            .addStatement("callbackAsyncHandlers.remove(key)")
+            .addStatement("handlerGuards.remove(key)")
+            .endControlFlow()
+            .addStatement("rebuildHandlers()")
+            .endControlFlow()
+            .build();
+
+        var unregisterHandlersWithStringKey = MethodSpec.methodBuilder("unregisterHandlers")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ArrayTypeName.of(String.class), "identifiers")
+            .varargs(true)
+            .addStatement("unregisterHandlers($T.stream(identifiers).map($T::fromString).toArray($T[]::new))", Arrays.class, IdentifierKey.class, IdentifierKey.class)
+            .build();
+        
+        var consumerOfObject = ParameterizedTypeName.get(ClassName.get("java.util.function", "Consumer"), objectParameter.type());
+        final String cancelCheck = getCancelCheck();
+        var invokeWithResultBuilder = MethodSpec.methodBuilder("invoke")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .addParameter(consumerOfObject, "result")
+            .addCode(recordInvocation)
+            .addStatement("final $T metrics = this.metrics", CallbackMetrics.class)
+            .beginControlFlow("if (metrics != null)")
+            .addStatement("metrics.recordInvocation($T.class)", objectClass)
+            .endControlFlow()
+            .addStatement("final $T handlers = this.handlers", arrayOfCallbackHandlers)
+            .addStatement("final $T listeners = this.listeners", arrayOfCallbackListeners)
+            .addStatement("final $T filteredListeners = this.filteredListeners", arrayOfFilteredListeners)
+            .addCode(indexed ? CodeBlock.of("final $T indexedListeners = this.indexedListeners;\n", indexedListenersType) : CodeBlock.of(""))
+            .beginControlFlow("if (handlers.length == 0 && listeners.length == 0 && " + getNoFilteredListenersCheck(indexed) + getNoInheritedListenersCheck() + ")")
+            .beginControlFlow("if (result != null)")
+            .addStatement("result.accept(callback)")
+            .endControlFlow()
+            .addStatement("return")
+            .endControlFlow();
+
+        // Static handlers are called directly while nothing else has been registered
+        if (!staticHandlers.isEmpty()) {
+            invokeWithResultBuilder.beginControlFlow("if (staticDispatch)");
+            for (StaticHandlerMethod staticHandler : staticHandlers) {
+                if (cancelCheck != null)
+                    invokeWithResultBuilder.beginControlFlow("if (!" + cancelCheck + ")");
+
+                invokeWithResultBuilder.addStatement("$T.$L(callback)", staticHandler.owner(), staticHandler.methodName());
+
+                if (cancelCheck != null)
+                    invokeWithResultBuilder.endControlFlow();
+            }
+
+            invokeWithResultBuilder.nextControlFlow("else");
+        }
+
+        invokeWithResultBuilder.beginControlFlow("for (int i = 0; i < handlers.length; i++)");
+
+        if (cancelCheck != null)
+            invokeWithResultBuilder
+                .beginControlFlow("if (" + cancelCheck + ")")
+                .addStatement("break")
+                .endControlFlow();
+
+        invokeWithResultBuilder
+            .addStatement("handlers[i].handle(callback)")
+            .endControlFlow();
+
+        if (!staticHandlers.isEmpty())
+            invokeWithResultBuilder.endControlFlow();
+
+        addListenerDispatch(invokeWithResultBuilder, cancelCheck, indexed);
+
+        var invokeWithResult = invokeWithResultBuilder
+            .beginControlFlow("if (result != null)")
+            .addStatement("result.accept(callback)")
+            .endControlFlow()
+            .build();
+
+        var triggerListeners = MethodSpec.methodBuilder("triggerListeners")
+            .addModifiers(Modifier.PRIVATE)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .addParameter(arrayOfCallbackListeners, "listeners")
+            .addParameter(CallbackMetrics.class, "metrics")
+            .addStatement("final $T listenerRingBuffer = this.listenerRingBuffer", ringBufferOfListeners)
+            .beginControlFlow("if (listenerRingBuffer != null)")
+            .addStatement("listenerRingBuffer.publish(callback, listeners)")
+            .beginControlFlow("if (metrics != null)")
+            .addStatement("metrics.recordListenersScheduled($T.class, listeners.length)", objectClass)
+            .endControlFlow()
+            .addStatement("return")
+            .endControlFlow()
+            .addCode(getParameterCaptures())
+            .addStatement("$T executor = this.listenerExecutor", Executor.class)
+            .beginControlFlow("if (executor == null)")
+            .addStatement("executor = $T.getDefault()", ListenerExecutors.class)
+            .endControlFlow()
+            .beginControlFlow("if (batchListeners)")
+            .beginControlFlow("executeListenerTask(executor, () ->")
+            .beginControlFlow("for ($T listener : listeners)", callbackListenerClass)
+            .addStatement("listener.trigger(" + getParameterArguments() + ")")
+            .endControlFlow()
+            .addCode("$<}, listeners.length, metrics);\n")
+            .nextControlFlow("else")
+            .beginControlFlow("for (int i = 0; i < listeners.length; i++)")
+            .addStatement("final $T listener = listeners[i]", callbackListenerClass)
+            .addStatement("executeListenerTask(executor, () -> listener.trigger(" + getParameterArguments() + "), 1, metrics)")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+
+        // Listeners are recorded as scheduled task by task, and as dropped if the executor refuses their task, so that
+        // they do not stay in flight
+        var executeListenerTask = MethodSpec.methodBuilder("executeListenerTask")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(Executor.class, "executor")
+            .addParameter(Runnable.class, "task")
+            .addParameter(TypeName.INT, "listeners")
+            .addParameter(CallbackMetrics.class, "metrics")
+            .beginControlFlow("if (metrics == null)")
+            .addStatement("executor.execute(task)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("metrics.recordListenersScheduled($T.class, listeners)", objectClass)
+            .beginControlFlow("try")
+            .addStatement("executor.execute($L)", TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(DroppableTask.class)
+                .addMethod(MethodSpec.methodBuilder("run")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addStatement("task.run()")
+                    .build())
+                .addMethod(MethodSpec.methodBuilder("onDropped")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addStatement("metrics.recordListenersDropped($T.class, listeners)", objectClass)
+                    .build())
+                .build())
+            .nextControlFlow("catch ($T e)", RejectedExecutionException.class)
+            .addStatement("metrics.recordListenersDropped($T.class, listeners)", objectClass)
+            .addStatement("throw e")
+            .endControlFlow()
+            .build();
+
+        var matchListenersBuilder = MethodSpec.methodBuilder("matchListeners")
+            .addModifiers(Modifier.PRIVATE)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .addParameter(arrayOfCallbackListeners, "listeners")
+            .addParameter(arrayOfFilteredListeners, "filteredListeners")
+            .returns(arrayOfCallbackListeners);
+
+        if (indexed)
+            matchListenersBuilder
+                .addParameter(indexedListenersType, "indexedListeners")
+                .addStatement("final $T indexMatches = indexedListeners.get(callback.$L)", arrayOfCallbackListeners, getFieldGetter(listenerIndex))
+                .addStatement("final int indexed = indexMatches == null ? 0 : indexMatches.length");
+
+        // Each filter is tested once and its outcome kept as a bit, so that the matches fit in a single exactly sized array
+        matchListenersBuilder
+            .addStatement("long matchedFilters = 0L")
+            .addStatement("final long[] moreMatchedFilters = filteredListeners.length > $T.SIZE ? new long[(filteredListeners.length - 1) / $T.SIZE] : null", Long.class, Long.class)
+            .addStatement("int filtered = 0")
+            .beginControlFlow("for (int i = 0; i < filteredListeners.length; i++)")
+            .beginControlFlow("if (filteredListeners[i].filter.test(callback))")
+            .beginControlFlow("if (i < $T.SIZE)", Long.class)
+            .addStatement("matchedFilters |= 1L << i")
+            .nextControlFlow("else")
+            .addStatement("moreMatchedFilters[i / $T.SIZE - 1] |= 1L << i", Long.class)
+            .endControlFlow()
+            .addStatement("filtered++")
+            .endControlFlow()
+            .endControlFlow();
+
+        // A single source of matches is returned as is
+        if (indexed)
+            matchListenersBuilder
+                .beginControlFlow("if (filtered == 0 && indexed == 0)")
+                .addStatement("return listeners")
+                .endControlFlow()
+                .beginControlFlow("if (filtered == 0 && listeners.length == 0)")
+                .addStatement("return indexMatches")
+                .endControlFlow()
+                .addStatement("final $T matches = new $T[listeners.length + indexed + filtered]", arrayOfCallbackListeners, callbackListenerClass)
+                .addStatement("$T.arraycopy(listeners, 0, matches, 0, listeners.length)", System.class)
+                .beginControlFlow("if (indexed > 0)")
+                .addStatement("$T.arraycopy(indexMatches, 0, matches, listeners.length, indexed)", System.class)
+                .endControlFlow()
+                .addStatement("int next = listeners.length + indexed");
+        else
+            matchListenersBuilder
+                .beginControlFlow("if (filtered == 0)")
+                .addStatement("return listeners")
+                .endControlFlow()
+                .addStatement("final $T matches = new $T[listeners.length + filtered]", arrayOfCallbackListeners, callbackListenerClass)
+                .addStatement("$T.arraycopy(listeners, 0, matches, 0, listeners.length)", System.class)
+                .addStatement("int next = listeners.length");
+
+        var matchListeners = matchListenersBuilder
+            .beginControlFlow("for (int i = 0; next < matches.length; i++)")
+            .addStatement("final long matched = i < $T.SIZE ? matchedFilters : moreMatchedFilters[i / $T.SIZE - 1]", Long.class, Long.class)
+            .beginControlFlow("if ((matched & 1L << i) != 0)")
+            .addStatement("matches[next++] = filteredListeners[i].listener")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return matches")
+            .build();
+
+        var filteredListenerType = TypeSpec.classBuilder(FILTERED_LISTENER_CLASS)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addField(predicateOfObject, "filter", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(callbackListenerClass, "listener", Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(predicateOfObject, "filter")
+                .addParameter(callbackListenerClass, "listener")
+                .addStatement("this.filter = filter")
+                .addStatement("this.listener = listener")
+                .build())
+            .build();
+
+        TypeSpec listenerIndexTypeSpec = null;
+        if (primitiveIndex) {
+            var keyType = TypeName.get(listenerIndexType);
+            var arrayOfKeys = ArrayTypeName.of(keyType);
+            var arrayOfBuckets = ArrayTypeName.of(arrayOfCallbackListeners);
+
+            listenerIndexTypeSpec = TypeSpec.classBuilder(LISTENER_INDEX_CLASS)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(listenerIndexClass, "EMPTY", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("new $T(new $T[0], new $T[0][])", listenerIndexClass, keyType, callbackListenerClass)
+                    .build())
+                .addField(arrayOfKeys, "keys", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(arrayOfBuckets, "buckets", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PRIVATE)
+                    .addParameter(arrayOfKeys, "keys")
+                    .addParameter(arrayOfBuckets, "buckets")
+                    .addStatement("this.keys = keys")
+                    .addStatement("this.buckets = buckets")
+                    .build())
+                .addMethod(MethodSpec.methodBuilder("of")
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                    .returns(listenerIndexClass)
+                    .addParameter(mapOfIndexedListeners, "indexedListeners")
+                    .addStatement("final $T keys = new $T[indexedListeners.size()]", arrayOfKeys, keyType)
+                    .addStatement("int i = 0")
+                    .beginControlFlow("for ($T value : indexedListeners.keySet())", Object.class)
+                    .addStatement("keys[i++] = ($T) value", keyType.box())
+                    .endControlFlow()
+                    .addStatement("$T.sort(keys)", Arrays.class)
+                    .addStatement("final $T buckets = new $T[keys.length][]", arrayOfBuckets, callbackListenerClass)
+                    .beginControlFlow("for (i = 0; i < keys.length; i++)")
+                    .addStatement("buckets[i] = indexedListeners.get(keys[i])")
+                    .endControlFlow()
+                    .addStatement("return new $T(keys, buckets)", listenerIndexClass)
+                    .build())
+                .addMethod(MethodSpec.methodBuilder("isEmpty")
+                    .addModifiers(Modifier.PRIVATE)
+                    .returns(TypeName.BOOLEAN)
+                    .addStatement("return keys.length == 0")
+                    .build())
+                .addMethod(MethodSpec.methodBuilder("get")
+                    .addModifiers(Modifier.PRIVATE)
+                    .returns(arrayOfCallbackListeners)
+                    .addParameter(keyType, "value")
+                    .addStatement("final int i = $T.binarySearch(keys, value)", Arrays.class)
+                    .addStatement("return i < 0 ? null : buckets[i]")
+                    .build())
+                .build();
+        }
+
+        var invokeAsyncBuilder = MethodSpec.methodBuilder("invokeAsync")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), objectParameter.type()))
+            .addStatement("final $T asyncHandlers = this.asyncHandlers", arrayOfCallbackAsyncHandlers)
+            .beginControlFlow("if (asyncHandlers == null)")
+            .beginControlFlow("try")
+            .addStatement("invoke(callback)")
+            .nextControlFlow("catch ($T t)", Throwable.class)
+            .addStatement("return $T.failedFuture(t)", CompletableFuture.class)
+            .endControlFlow()
+            .addStatement("return $T.completedFuture(callback)", CompletableFuture.class)
+            .endControlFlow()
+            .addCode(recordInvocation)
+            .addStatement("final $T metrics = this.metrics", CallbackMetrics.class)
+            .beginControlFlow("if (metrics != null)")
+            .addStatement("metrics.recordInvocation($T.class)", objectClass)
+            .endControlFlow()
+            .addStatement("$T stage = COMPLETED", ParameterizedTypeName.get(CompletableFuture.class, Void.class))
+            .beginControlFlow("for ($T handler : asyncHandlers)", callbackAsyncHandlerClass)
+            .beginControlFlow("stage = stage.thenCompose(ignored ->");
+
+        if (cancelCheck != null)
+            invokeAsyncBuilder
+                .beginControlFlow("if (" + cancelCheck + ")")
+                .addStatement("return COMPLETED")
+                .endControlFlow();
+
+        invokeAsyncBuilder
+            .addStatement("final $T next = handler.handle(callback)", ParameterizedTypeName.get(CompletionStage.class, Void.class))
+            .addStatement("return next")
+            .addCode("$<});\n")
+            .endControlFlow()
+            .beginControlFlow("return stage.thenApply(ignored ->")
+            .addStatement("final $T listeners = this.listeners", arrayOfCallbackListeners)
+            .addStatement("final $T filteredListeners = this.filteredListeners", arrayOfFilteredListeners)
+            .addCode(indexed ? CodeBlock.of("final $T indexedListeners = this.indexedListeners;\n", indexedListenersType) : CodeBlock.of(""));
+
+        addListenerDispatch(invokeAsyncBuilder, cancelCheck, indexed);
+
+        var invokeAsync = invokeAsyncBuilder
+            .addStatement("return callback")
+            .addCode("$<});\n")
+            .build();
+
+        var handleWithResult = MethodSpec.methodBuilder("handle")   
+            .addAnnotation(Deprecated.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .addParameter(consumerOfObject, "result")
+            .addStatement("invoke(callback, result)")
+            .build();
+
+        var setListenerExecutor = MethodSpec.methodBuilder("setListenerExecutor")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Executor.class, "executor")
+            .addStatement("this.listenerExecutor = executor")
+            .build();
+
+        var getListenerExecutor = MethodSpec.methodBuilder("getListenerExecutor")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Executor.class)
+            .addStatement("final $T executor = this.listenerExecutor", Executor.class)
+            .addStatement("return executor == null ? $T.getDefault() : executor", ListenerExecutors.class)
+            .build();
+
+        var setBatchListeners = MethodSpec.methodBuilder("setBatchListeners")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(TypeName.BOOLEAN, "batch")
+            .addStatement("this.batchListeners = batch")
+            .build();
+
+        var enableListenerRingBuffer = MethodSpec.methodBuilder("enableListenerRingBuffer")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(ClassName.get(ListenerRingBuffer.class), WildcardTypeName.subtypeOf(Object.class), WildcardTypeName.subtypeOf(Object.class)))
+            .addParameter(TypeName.INT, "capacity")
+            .addParameter(WaitStrategy.class, "waitStrategy")
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("final $T listenerRingBuffer = new $T<>(capacity, waitStrategy, $T::new)", ringBufferOfListeners, ListenerRingBuffer.class, listenerSlotClass)
+            .addStatement("disableListenerRingBuffer()")
+            .addStatement("this.listenerRingBuffer = listenerRingBuffer")
+            .addStatement("return listenerRingBuffer")
+            .endControlFlow()
+            .build();
+
+        var disableListenerRingBuffer = MethodSpec.methodBuilder("disableListenerRingBuffer")
+            .addModifiers(Modifier.PUBLIC)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("final $T listenerRingBuffer = this.listenerRingBuffer", ringBufferOfListeners)
+            .beginControlFlow("if (listenerRingBuffer != null)")
+            .addStatement("this.listenerRingBuffer = null")
+            .addStatement("listenerRingBuffer.close()")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+
+        var mergeParameter = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(BinaryOperator.class), objectClass), "merge").build();
+
+        var setCoalescing = MethodSpec.methodBuilder("setCoalescing")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Duration.class, "window")
+            .addStatement("setCoalescing(window, null)")
+            .build();
+
+        var setCoalescingWithMerge = MethodSpec.methodBuilder("setCoalescing")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Duration.class, "window")
+            .addParameter(mergeParameter)
+            .addStatement("setCoalescing(window, $N, $T.commonPool())", mergeParameter, ListenerExecutors.class)
+            .build();
+
+        var setCoalescingWithExecutor = MethodSpec.methodBuilder("setCoalescing")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Duration.class, "window")
+            .addParameter(mergeParameter)
+            .addParameter(Executor.class, "flushExecutor")
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("final $T previous = this.coalescer", coalescerOfObject)
+            .addStatement("this.coalescer = window == null ? null : new $T<>(callback -> callback.$L, $N, window, flushExecutor, this::invoke)", Coalescer.class, getFieldGetter(coalesceKey), mergeParameter)
+            .beginControlFlow("if (previous != null)")
+            .addStatement("previous.close()")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+
+        var invokeCoalesced = MethodSpec.methodBuilder("invokeCoalesced")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .addStatement("final $T coalescer = this.coalescer", coalescerOfObject)
+            .beginControlFlow("if (coalescer == null)")
+            .addStatement("invoke(callback)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("coalescer.offer(callback)")
+            .build();
+
+        var flushCoalesced = MethodSpec.methodBuilder("flushCoalesced")
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("final $T coalescer = this.coalescer", coalescerOfObject)
+            .beginControlFlow("if (coalescer != null)")
+            .addStatement("coalescer.flush()")
+            .endControlFlow()
+            .build();
+
+        var rebuildHandlersBuilder = MethodSpec.methodBuilder("rebuildHandlers")
+            .addModifiers(Modifier.PRIVATE)
+            .addStatement("final $T metrics = this.metrics", CallbackMetrics.class)
+            .addStatement("final $T faultPolicy = getEffectiveFaultPolicy()", FaultPolicy.class)
+            .addStatement("final $T[] keys = callbackHandlers.keySet().stream()\n.sorted($T.comparingInt(handlerPriorities::get).reversed())\n.toArray($T[]::new)", IdentifierKey.class, Comparator.class, IdentifierKey.class)
+            .addCode(polymorphic ? CodeBlock.of("final $T inheritedHandlers = $T.INSTANCE.getHandlerSnapshot();\n", ArrayTypeName.of(superHandlerClass), superCallbackClass) : CodeBlock.of(""))
+            // The snapshots only match if the supertype did not rebuild in between, otherwise it notifies us again
+            .addCode(polymorphic ? CodeBlock.of("final $T inheritedAsyncHandlers = $T.INSTANCE.getAsyncHandlerSnapshot();\n", ArrayTypeName.of(superAsyncHandlerClass), superCallbackClass) : CodeBlock.of(""))
+            .addCode(polymorphic ? CodeBlock.of("final boolean inheritsAsyncHandlers = inheritedAsyncHandlers != null && inheritedAsyncHandlers.length == inheritedHandlers.length;\n") : CodeBlock.of(""))
+            .addCode(polymorphic ? CodeBlock.of("final int[] inheritedPriorities = $T.INSTANCE.getHandlerPrioritySnapshot();\n", superCallbackClass) : CodeBlock.of(""))
+            .addCode(polymorphic ? CodeBlock.of("final boolean inheritsPriorities = inheritedPriorities.length == inheritedHandlers.length;\n") : CodeBlock.of(""))
+            .addStatement("final $T handlers = new $T[$L]", arrayOfCallbackHandlers, callbackHandlerClass, polymorphic ? "keys.length + inheritedHandlers.length" : "keys.length")
+            .addStatement("final $T asyncHandlers = $L ? null : new $T[handlers.length]", arrayOfCallbackAsyncHandlers, polymorphic ? "callbackAsyncHandlers.isEmpty() && !inheritsAsyncHandlers" : "callbackAsyncHandlers.isEmpty()", callbackAsyncHandlerClass)
+            .addStatement("final int[] priorities = new int[handlers.length]");
+
+        if (polymorphic)
+            // Supertype handlers are merged into the callback's own ones by priority, already wrapped by their callback.
+            // On equal priority the callback's own handlers run first
+            rebuildHandlersBuilder
+                .addStatement("int own = 0")
+                .addStatement("int inherited = 0")
+                .beginControlFlow("for (int i = 0; i < handlers.length; i++)")
+                .beginControlFlow("if (own == keys.length || inherited < inheritedHandlers.length && inheritsPriorities && inheritedPriorities[inherited] > handlerPriorities.get(keys[own]))")
+                .addStatement("final $T inheritedHandler = inheritedHandlers[inherited]", superHandlerClass)
+                .addStatement("handlers[i] = callback -> inheritedHandler.handle(callback)")
+                .addStatement("priorities[i] = inheritsPriorities ? inheritedPriorities[inherited] : $T.MIN_VALUE", Integer.class)
+                .beginControlFlow("if (inheritsAsyncHandlers)")
+                .addStatement("final $T inheritedAsyncHandler = inheritedAsyncHandlers[inherited]", superAsyncHandlerClass)
+                .addStatement("asyncHandlers[i] = callback -> inheritedAsyncHandler.handle(callback)")
+                .nextControlFlow("else if (asyncHandlers != null)")
+                .beginControlFlow("asyncHandlers[i] = callback ->")
+                .addStatement("inheritedHandler.handle(callback)")
+                .addStatement("return COMPLETED")
+                .addCode("$<};\n")
+                .endControlFlow()
+                .addStatement("inherited++")
+                .addStatement("continue")
+                .endControlFlow()
+                .addStatement("final $T key = keys[own++]", IdentifierKey.class);
+        else
+            rebuildHandlersBuilder
+                .beginControlFlow("for (int i = 0; i < keys.length; i++)")
+                .addStatement("final $T key = keys[i]", IdentifierKey.class);
+
+        rebuildHandlersBuilder
+            .addStatement("priorities[i] = handlerPriorities.get(key)")
+            .addStatement("final $T asyncHandler = callbackAsyncHandlers.get(key)", callbackAsyncHandlerClass)
+            .beginControlFlow("if (asyncHandler == null)")
+            .addStatement("final $T handler = guardHandler(key, instrumentHandler(key, callbackHandlers.get(key), metrics), faultPolicy)", callbackHandlerClass)
+            .addStatement("handlers[i] = handler")
+            .beginControlFlow("if (asyncHandlers != null)")
+            .beginControlFlow("asyncHandlers[i] = callback ->")
+            .addStatement("handler.handle(callback)")
+            .addStatement("return COMPLETED")
+            .addCode("$<};\n")
+            .endControlFlow()
+            .nextControlFlow("else")
+            .addStatement("final $T guardedHandler = guardAsyncHandler(key, instrumentAsyncHandler(key, asyncHandler, metrics), faultPolicy)", callbackAsyncHandlerClass)
+            .addStatement("handlers[i] = startAsyncHandler(guardedHandler)")
+            .addStatement("asyncHandlers[i] = guardedHandler")
+            .endControlFlow()
+            .endControlFlow();
+
+        if (!staticHandlers.isEmpty()) {
+            var staticDispatchCheck = CodeBlock.builder()
+                .add("metrics == null && faultPolicy.isPropagating() && asyncHandlers == null" + (polymorphic ? " && inheritedHandlers.length == 0" : "") + "\n")
+                .add("&& callbackHandlers.size() == $L", staticHandlers.size());
+
+            for (int i = 0; i < staticHandlers.size(); i++)
+                staticDispatchCheck.add("\n&& callbackHandlers.get(STATIC_HANDLER_KEY_$L) == STATIC_HANDLER_$L", i, i);
+
+            rebuildHandlersBuilder.addStatement("this.staticDispatch = $L", staticDispatchCheck.build());
+        }
+
+        var rebuildHandlers = rebuildHandlersBuilder
+            .addStatement("this.priorities = priorities")
+            .addStatement("this.asyncHandlers = asyncHandlers")
+            .addStatement("this.handlers = handlers")
+            .addStatement("subtypeDispatch.removeIf(subtype -> subtype.get() == null)")
+            .beginControlFlow("for ($T subtype : subtypeDispatch)", weakRunnable)
+            .addStatement("final $T rebuild = subtype.get()", Runnable.class)
+            .beginControlFlow("if (rebuild != null)")
+            .addStatement("rebuild.run()")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+
+        var getHandlerSnapshot = MethodSpec.methodBuilder("getHandlerSnapshot")
+            .addJavadoc("Returns the handlers invoked by this callback, in order. Used by the callbacks of polymorphic subtypes\nand must not be modified.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(arrayOfCallbackHandlers)
+            .addStatement("return handlers")
+            .build();
+
+        var getAsyncHandlerSnapshot = MethodSpec.methodBuilder("getAsyncHandlerSnapshot")
+            .addJavadoc("Returns the async variants of {@link #getHandlerSnapshot()}, or {@code null} if every handler is synchronous. Used\nby the callbacks of polymorphic subtypes and must not be modified.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(arrayOfCallbackAsyncHandlers)
+            .addStatement("return asyncHandlers")
+            .build();
+
+        var getHandlerPrioritySnapshot = MethodSpec.methodBuilder("getHandlerPrioritySnapshot")
+            .addJavadoc("Returns the priority of each handler in {@link #getHandlerSnapshot()}. Used by the callbacks of polymorphic\nsubtypes and must not be modified.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int[].class)
+            .addStatement("return priorities")
+            .build();
+
+        var addSubtypeDispatch = MethodSpec.methodBuilder("addSubtypeDispatch")
+            .addJavadoc("Runs {@code rebuild} whenever the handlers of this callback change, for as long as the caller keeps a strong\nreference to it. Used by the callbacks of polymorphic subtypes.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Runnable.class, "rebuild")
+            .addStatement("subtypeDispatch.add(new $T<>(rebuild))", WeakReference.class)
+            .build();
+
+        var refreshInheritedHandlers = MethodSpec.methodBuilder("refreshInheritedHandlers")
+            .addModifiers(Modifier.PRIVATE)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("rebuildHandlers()")
+            .endControlFlow()
+            .build();
+
+        var rebuildListeners = MethodSpec.methodBuilder("rebuildListeners")
+            .addModifiers(Modifier.PRIVATE)
+            .addStatement("final $T metrics = this.metrics", CallbackMetrics.class)
+            .addStatement("final $T faultPolicy = getEffectiveFaultPolicy()", FaultPolicy.class)
+            .addStatement("final $T<$T> listeners = new $T<>()", ArrayList.class, callbackListenerClass, ArrayList.class)
+            .addStatement("final $T<$T> filteredListeners = new $T<>()", ArrayList.class, filteredListenerClass, ArrayList.class)
+            .addStatement("final $T indexedListeners = new $T<>()", mapOfIndexedListeners, HashMap.class)
+            .beginControlFlow("for ($T key : callbackListeners.keySet())", IdentifierKey.class)
+            .addStatement("final $T listener = guardListener(key, instrumentListener(key, callbackListeners.get(key), metrics), faultPolicy)", callbackListenerClass)
+            .addStatement("final $T filter = callbackListenerFilters.get(key)", predicateOfObject)
+            .beginControlFlow("if (filter != null)")
+            .addStatement("filteredListeners.add(new $T(filter, listener))", filteredListenerClass)
+            .nextControlFlow("else if (callbackListenerIndex.containsKey(key))")
+            .addStatement("final $T value = callbackListenerIndex.get(key)", Object.class)
+            .addStatement("final $T bucket = indexedListeners.get(value)", arrayOfCallbackListeners)
+            .beginControlFlow("if (bucket == null)")
+            .addStatement("indexedListeners.put(value, new $T[] { listener })", callbackListenerClass)
+            .nextControlFlow("else")
+            .addStatement("final $T grown = $T.copyOf(bucket, bucket.length + 1)", arrayOfCallbackListeners, Arrays.class)
+            .addStatement("grown[bucket.length] = listener")
+            .addStatement("indexedListeners.put(value, grown)")
+            .endControlFlow()
+            .nextControlFlow("else")
+            .addStatement("listeners.add(listener)")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement(primitiveIndex ? CodeBlock.of("this.indexedListeners = $T.of(indexedListeners)", listenerIndexClass) : CodeBlock.of("this.indexedListeners = indexedListeners"))
+            .addStatement("this.filteredListeners = filteredListeners.toArray(new $T[0])", filteredListenerClass)
+            .addStatement("this.listeners = listeners.toArray(new $T[0])", callbackListenerClass)
+            .build();
+
+        var arrayOfObjects = ArrayTypeName.of(objectParameter.type());
+        var invokeAll = buildInvokeAllMethod(objectClass, arrayOfObjects, arrayOfCallbackHandlers, arrayOfCallbackListeners, arrayOfFilteredListeners, indexedListenersType,
+            callbackHandlerClass, callbackListenerClass, typeVariables, cancelCheck, indexed);
+
+        var collectionOfObjects = ParameterizedTypeName.get(ClassName.get(Collection.class), WildcardTypeName.subtypeOf(objectParameter.type()));
+        var invokeAllCollectionBuilder = MethodSpec.methodBuilder("invokeAll")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(collectionOfObjects, "callbacks");
+
+        if (typeVariables.isEmpty())
+            invokeAllCollectionBuilder.addStatement("invokeAll(callbacks.toArray(new $T[0]))", objectClass);
+        else
+            invokeAllCollectionBuilder
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                .addStatement("invokeAll(($T) callbacks.toArray(new $T[0]))", arrayOfObjects, objectClass);
+
+        var invokeAllCollection = invokeAllCollectionBuilder.build();
+
+        var invoke = MethodSpec.methodBuilder("invoke")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .addStatement("invoke(callback, null)")
+            .build();
+
+        // CallbackInstance
+        var setOfKeys = ParameterizedTypeName.get(Set.class, IdentifierKey.class);
+        var getCallbackType = MethodSpec.methodBuilder("getCallbackType")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)))
+            .addStatement("return $T.class", objectClass)
+            .build();
+
+        var getHandlerKeys = MethodSpec.methodBuilder("getHandlerKeys")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(setOfKeys)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("return $T.copyOf(callbackHandlers.keySet())", Set.class)
+            .endControlFlow()
+            .build();
+
+        var getListenerKeys = MethodSpec.methodBuilder("getListenerKeys")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(setOfKeys)
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("return $T.copyOf(callbackListeners.keySet())", Set.class)
+            .endControlFlow()
+            .build();
+
+        var unregisterGroup = MethodSpec.methodBuilder("unregisterGroup")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(String.class, "group")
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("unregisterHandlers(callbackHandlers.keySet().stream().filter(key -> key.group().equals(group)).toArray($T[]::new))", IdentifierKey.class)
+            .addStatement("unregisterListeners(callbackListeners.keySet().stream().filter(key -> key.group().equals(group)).toArray($T[]::new))", IdentifierKey.class)
+            .endControlFlow()
+            .build();
+
+        var getMetrics = MethodSpec.methodBuilder("getMetrics")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(CallbackMetrics.class)
+            .addStatement("return metrics")
+            .build();
+
+        var setMetrics = MethodSpec.methodBuilder("setMetrics")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(CallbackMetrics.class, "metrics")
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("this.metrics = metrics")
+            .addStatement("rebuildHandlers()")
+            .addStatement("rebuildListeners()")
+            .endControlFlow()
+            .build();
+
+        var getFaultPolicy = MethodSpec.methodBuilder("getFaultPolicy")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(FaultPolicy.class)
+            .addStatement("return faultPolicy")
+            .build();
+
+        var setFaultPolicy = MethodSpec.methodBuilder("setFaultPolicy")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(FaultPolicy.class, "faultPolicy")
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("this.faultPolicy = faultPolicy")
+            .addStatement("handlerGuards.clear()")
+            .addStatement("listenerGuards.clear()")
+            .addStatement("rebuildHandlers()")
+            .addStatement("rebuildListeners()")
+            .endControlFlow()
+            .build();
+
+        var getEffectiveFaultPolicy = MethodSpec.methodBuilder("getEffectiveFaultPolicy")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(FaultPolicy.class)
+            .addStatement("final $T faultPolicy = this.faultPolicy", FaultPolicy.class)
+            .addStatement("return faultPolicy == null ? $T.getDefault() : faultPolicy", FaultPolicy.class)
+            .build();
+
+        var guardHandler = MethodSpec.methodBuilder("guardHandler")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackHandlerClass, "handler")
+            .addParameter(FaultPolicy.class, "faultPolicy")
+            .returns(callbackHandlerClass)
+            .beginControlFlow("if (faultPolicy.isPropagating())")
+            .addStatement("return handler")
+            .endControlFlow()
+            .addStatement("final $T guard = handlerGuards.computeIfAbsent(key, k -> faultPolicy.newGuard($T.class, k))", FaultGuard.class, objectClass)
+            .beginControlFlow("return callback ->")
+            .beginControlFlow("if (guard.isDisabled())")
+            .addStatement("return")
+            .endControlFlow()
+            .beginControlFlow("try")
+            .addStatement("handler.handle(callback)")
+            .nextControlFlow("catch ($T t)", Throwable.class)
+            .addStatement("guard.onFailure(t)")
+            .endControlFlow()
+            .addCode("$<};\n")
+            .build();
+
+        var guardListener = MethodSpec.methodBuilder("guardListener")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackListenerClass, "listener")
+            .addParameter(FaultPolicy.class, "faultPolicy")
+            .returns(callbackListenerClass)
+            .beginControlFlow("if (faultPolicy.isPropagating())")
+            .addStatement("return listener")
+            .endControlFlow()
+            .addStatement("final $T guard = listenerGuards.computeIfAbsent(key, k -> faultPolicy.newGuard($T.class, k))", FaultGuard.class, objectClass)
+            .beginControlFlow("return (" + getParameterArguments() + ") ->")
+            .beginControlFlow("if (guard.isDisabled())")
+            .addStatement("return")
+            .endControlFlow()
+            .beginControlFlow("try")
+            .addStatement("listener.trigger(" + getParameterArguments() + ")")
+            .nextControlFlow("catch ($T t)", Throwable.class)
+            .addStatement("guard.onFailure(t)")
+            .endControlFlow()
+            .addCode("$<};\n")
             .build();
 
-        var unregisterListenersWithStringKey = MethodSpec.methodBuilder("unregisterListeners")
-            .addModifiers(Modifier.PUBLIC)
-            .addParameter(ArrayTypeName.of(String.class), "identifiers")
-            .varargs(true)
-            .addStatement("$T.stream(identifiers).forEach(callbackListeners::remove)", Arrays.class)
+        // Synchronous invocations start async handlers without waiting on them, so they never park the invoking thread
+        var startAsyncHandler = MethodSpec.methodBuilder("startAsyncHandler")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(callbackAsyncHandlerClass, "asyncHandler")
+            .returns(callbackHandlerClass)
+            .beginControlFlow("return callback ->")
+            .addStatement("final $T stage = asyncHandler.handle(callback)", ParameterizedTypeName.get(CompletionStage.class, Void.class))
+            .beginControlFlow("stage.whenComplete((ignored, failure) ->")
+            .beginControlFlow("if (failure != null)")
+            .addStatement("final $T thread = $T.currentThread()", Thread.class, Thread.class)
+            .addStatement("thread.getUncaughtExceptionHandler().uncaughtException(thread, failure)")
+            .endControlFlow()
+            .addCode("$<});\n")
+            .addCode("$<};\n")
             .build();
 
-        var unregisterHandlers = MethodSpec.methodBuilder("unregisterHandlers")
-            .addModifiers(Modifier.PUBLIC)
-            .addParameter(ArrayTypeName.of(IdentifierKey.class), "identifiers")
-            .varargs(true)
-            .addStatement("$T.stream(identifiers).forEach(key -> callbackHandlers.remove(key.toString()))", Arrays.class)
+        var instrumentAsyncHandler = MethodSpec.methodBuilder("instrumentAsyncHandler")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackAsyncHandlerClass, "asyncHandler")
+            .addParameter(CallbackMetrics.class, "metrics")
+            .returns(callbackAsyncHandlerClass)
+            .beginControlFlow("if (metrics == null)")
+            .addStatement("return asyncHandler")
+            .endControlFlow()
+            .beginControlFlow("return callback ->")
+            .addStatement("final long start = $T.nanoTime()", System.class)
+            .addStatement("final $T stage", ParameterizedTypeName.get(CompletionStage.class, Void.class))
+            .beginControlFlow("try")
+            .addStatement("stage = asyncHandler.handle(callback)")
+            .nextControlFlow("catch ($T t)", Throwable.class)
+            .addStatement("metrics.recordHandler($T.class, key, $T.nanoTime() - start)", objectClass, System.class)
+            .addStatement("throw t")
+            .endControlFlow()
+            .addStatement("return stage.whenComplete((ignored, failure) -> metrics.recordHandler($T.class, key, $T.nanoTime() - start))", objectClass, System.class)
+            .addCode("$<};\n")
             .build();
 
-        var unregisterHandlersWithStringKey = MethodSpec.methodBuilder("unregisterHandlers")
-            .addModifiers(Modifier.PUBLIC)
-            .addParameter(ArrayTypeName.of(String.class), "identifiers")
-            .varargs(true)
-            .addStatement("$T.stream(identifiers).forEach(callbackHandlers::remove)", Arrays.class)
+        var guardAsyncHandler = MethodSpec.methodBuilder("guardAsyncHandler")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackAsyncHandlerClass, "asyncHandler")
+            .addParameter(FaultPolicy.class, "faultPolicy")
+            .returns(callbackAsyncHandlerClass)
+            .beginControlFlow("if (faultPolicy.isPropagating())")
+            .addStatement("return asyncHandler")
+            .endControlFlow()
+            .addStatement("final $T guard = handlerGuards.computeIfAbsent(key, k -> faultPolicy.newGuard($T.class, k))", FaultGuard.class, objectClass)
+            .beginControlFlow("return callback ->")
+            .beginControlFlow("if (guard.isDisabled())")
+            .addStatement("return COMPLETED")
+            .endControlFlow()
+            .beginControlFlow("try")
+            .addStatement("final $T stage = asyncHandler.handle(callback)", ParameterizedTypeName.get(CompletionStage.class, Void.class))
+            .beginControlFlow("return stage.exceptionally(failure ->")
+            .addStatement("guard.onFailure(failure)")
+            .addStatement("return null")
+            .addCode("$<});\n")
+            .nextControlFlow("catch ($T t)", Throwable.class)
+            .addStatement("guard.onFailure(t)")
+            .addStatement("return COMPLETED")
+            .endControlFlow()
+            .addCode("$<};\n")
             .build();
-        
-        var consumerOfObject = ParameterizedTypeName.get(ClassName.get("java.util.function", "Consumer"), objectParameter.type());
-        var invokeWithResult = MethodSpec.methodBuilder("invoke")
-            .addModifiers(Modifier.PUBLIC)
-            .addTypeVariables(typeVariables)
-            .addParameter(objectParameter)
-            .addParameter(consumerOfObject, "result")
-            .beginControlFlow("for ($T handler : callbackHandlers.values())", callbackHandlerClass)
+
+        var instrumentHandler = MethodSpec.methodBuilder("instrumentHandler")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackHandlerClass, "handler")
+            .addParameter(CallbackMetrics.class, "metrics")
+            .returns(callbackHandlerClass)
+            .beginControlFlow("if (metrics == null)")
+            .addStatement("return handler")
+            .endControlFlow()
+            .beginControlFlow("return callback ->")
+            .addStatement("final long start = $T.nanoTime()", System.class)
+            .beginControlFlow("try")
             .addStatement("handler.handle(callback)")
+            .nextControlFlow("finally")
+            .addStatement("metrics.recordHandler($T.class, key, $T.nanoTime() - start)", objectClass, System.class)
             .endControlFlow()
-            .beginControlFlow("for ($T listener : callbackListeners.values())", callbackListenerClass)
-            .addStatement("$T.runAsync(() -> listener.trigger(" + getParameterGetters() + "))", CompletableFuture.class)
+            .addCode("$<};\n")
+            .build();
+
+        var instrumentListener = MethodSpec.methodBuilder("instrumentListener")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(IdentifierKey.class, "key")
+            .addParameter(callbackListenerClass, "listener")
+            .addParameter(CallbackMetrics.class, "metrics")
+            .returns(callbackListenerClass)
+            .beginControlFlow("if (metrics == null)")
+            .addStatement("return listener")
             .endControlFlow()
-            .beginControlFlow("if (result != null)")
-            .addStatement("result.accept(callback)")
+            .beginControlFlow("return (" + getParameterArguments() + ") ->")
+            .addStatement("final long start = $T.nanoTime()", System.class)
+            .addStatement("$T failure = null", Throwable.class)
+            .beginControlFlow("try")
+            .addStatement("listener.trigger(" + getParameterArguments() + ")")
+            .nextControlFlow("catch ($T t)", Throwable.class)
+            .addStatement("failure = t")
+            .addStatement("throw t")
+            .nextControlFlow("finally")
+            .addStatement("metrics.recordListener($T.class, key, $T.nanoTime() - start, failure)", objectClass, System.class)
             .endControlFlow()
+            .addCode("$<};\n")
             .build();
 
-        var handleWithResult = MethodSpec.methodBuilder("handle")   
-            .addAnnotation(Deprecated.class)
+        var hasHandlers = MethodSpec.methodBuilder("hasHandlers")
             .addModifiers(Modifier.PUBLIC)
-            .addTypeVariables(typeVariables)
-            .addParameter(objectParameter)
-            .addParameter(consumerOfObject, "result")
-            .addStatement("invoke(callback, result)")
+            .returns(TypeName.BOOLEAN)
+            .addStatement("return handlers.length > 0")
             .build();
 
-        var invoke = MethodSpec.methodBuilder("invoke")
+        var hasListeners = MethodSpec.methodBuilder("hasListeners")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.BOOLEAN)
+            .addStatement("return listeners.length > 0 || filteredListeners.length > 0 || !indexedListeners.isEmpty()" + (polymorphic ? " || hasInheritedListeners()" : ""))
+            .build();
+
+        var dispatchListenersBuilder = MethodSpec.methodBuilder("dispatchListeners")
+            .addJavadoc("Triggers the listeners of this callback without running its handlers. Used by the callbacks of\npolymorphic subtypes.\n")
             .addModifiers(Modifier.PUBLIC)
             .addTypeVariables(typeVariables)
             .addParameter(objectParameter)
-            .addStatement("handle(callback, null)")
+            .addStatement("final $T metrics = this.metrics", CallbackMetrics.class)
+            .addStatement("final $T listeners = this.listeners", arrayOfCallbackListeners)
+            .addStatement("final $T filteredListeners = this.filteredListeners", arrayOfFilteredListeners)
+            .addCode(indexed ? CodeBlock.of("final $T indexedListeners = this.indexedListeners;\n", indexedListenersType) : CodeBlock.of(""));
+
+        addListenerDispatch(dispatchListenersBuilder, null, indexed);
+        var dispatchListeners = dispatchListenersBuilder.build();
+
+        var hasInheritedListeners = MethodSpec.methodBuilder("hasInheritedListeners")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(TypeName.BOOLEAN)
+            .addStatement(polymorphic ? CodeBlock.of("return $T.INSTANCE.hasListeners()", superCallbackClass) : CodeBlock.of("return false"))
+            .build();
+
+        var hasSubscribers = MethodSpec.methodBuilder("hasSubscribers")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.BOOLEAN)
+            .addStatement("return handlers.length > 0 || hasListeners()")
             .build();
 
         var handle = MethodSpec.methodBuilder("handle")
@@ -218,28 +1514,165 @@ public final class CallbackAnnotatedClass {
             .addStatement("invoke(callback)")
             .build();
 
+        var staticBlock = CodeBlock.builder();
+        if (polymorphic)
+            staticBlock
+                .addStatement("$T.INSTANCE.addSubtypeDispatch(INSTANCE.inheritedHandlersRefresh)", superCallbackClass)
+                .addStatement("INSTANCE.refreshInheritedHandlers()");
+
+        staticBlock.addStatement("$T.register(INSTANCE)", CallbackRegistry.class);
+
+        if (!staticHandlers.isEmpty())
+            staticBlock.addStatement("INSTANCE.registerStaticHandlers()");
+
+        staticBlock.addStatement("INSTANCE.setMetrics($T.getInitialMetrics($L))", CallbackInstrumentation.class, getCallbackAnnotation().instrumented());
+
         // Class
-        TypeSpec callbackType = TypeSpec.classBuilder(callbackClassName)
+        var callbackTypeBuilder = TypeSpec.classBuilder(callbackClassName)
+            .addOriginatingElement(typeElement)
+            .addJavadoc("Generated callback for {@link $T}.\n", objectClass)
+            .addJavadoc("<p>\n")
+            .addJavadoc("Methods that register, unregister or reconfigure handlers and listeners hold a private lock,\n")
+            .addJavadoc("and each one publishes a new dispatch snapshot through a volatile write before it returns.\n")
+            .addJavadoc("Dispatch never locks: it reads the latest snapshot, so a registration that has returned\n")
+            .addJavadoc("happens-before every invocation started afterwards, on any thread. An invocation that is\n")
+            .addJavadoc("already running keeps using the snapshot it started with.\n")
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addSuperinterface(CallbackInstance.class)
             .addField(instance)
+            .addField(defaultPriority)
+            .addField(registrationLock)
             .addField(handlerMap)
+            .addField(handlerPriorityMap)
+            .addField(asyncHandlerMap)
+            .addField(completedStage)
             .addField(listenerMap)
+            .addField(listenerFilterMap)
+            .addField(listenerIndexMap)
+            .addField(handlerSnapshot)
+            .addField(asyncHandlerSnapshot)
+            .addField(prioritySnapshot)
+            .addField(listenerSnapshot)
+            .addField(filteredListenerSnapshot)
+            .addField(indexedListenerSnapshot)
+            .addField(listenerExecutorField)
+            .addField(batchListenersField)
+            .addField(metricsField)
+            .addField(faultPolicyField)
+            .addField(handlerGuardMap)
+            .addField(listenerGuardMap)
+            .addStaticBlock(staticBlock.build())
             .addMethod(constructor)
             .addMethod(registerHandler)
+            .addMethod(registerHandlerWithPriority)
             .addMethod(registerHandlerWithStringKey)
+            .addMethod(registerHandlerWithStringKeyAndPriority)
+            .addMethod(registerAsyncHandler)
+            .addMethod(registerAsyncHandlerWithPriority)
+            .addMethod(registerAsyncHandlerWithStringKey)
+            .addMethod(registerAsyncHandlerWithStringKeyAndPriority)
             .addMethod(unregisterHandlers)
             .addMethod(unregisterHandlersWithStringKey)
             .addMethod(registerListener)
             .addMethod(registerListenerWithStringKey)
+            .addMethod(registerFilteredListener)
+            .addMethod(registerFilteredListenerWithStringKey)
             .addMethod(unregisterListeners)
             .addMethod(unregisterListenersWithStringKey)
+            .addMethod(setListenerExecutor)
+            .addMethod(getListenerExecutor)
+            .addMethod(setBatchListeners)
+            .addMethod(getCallbackType)
+            .addMethod(getHandlerKeys)
+            .addMethod(getListenerKeys)
+            .addMethod(unregisterGroup)
+            .addMethod(getMetrics)
+            .addMethod(setMetrics)
+            .addMethod(getFaultPolicy)
+            .addMethod(setFaultPolicy)
+            .addMethod(hasHandlers)
+            .addMethod(hasListeners)
+            .addMethod(hasSubscribers)
             .addMethod(invokeWithResult)
             .addMethod(handleWithResult)
+            .addMethod(invokeAll)
+            .addMethod(invokeAllCollection)
             .addMethod(invoke)
             .addMethod(handle)
+            .addMethod(invokeAsync)
+            .addMethod(triggerListeners)
+            .addMethod(executeListenerTask)
+            .addMethod(matchListeners)
+            .addMethod(rebuildHandlers)
+            .addMethod(rebuildListeners)
+            .addMethod(instrumentHandler)
+            .addMethod(instrumentListener)
+            .addMethod(unregisterHandler)
+            .addMethod(unregisterAsyncHandler)
+            .addMethod(unregisterListener)
+            .addMethod(getEffectiveFaultPolicy)
+            .addMethod(guardHandler)
+            .addMethod(guardListener)
+            .addMethod(startAsyncHandler)
+            .addMethod(instrumentAsyncHandler)
+            .addMethod(guardAsyncHandler)
             .addType(callbackHandlerTypeSpec)
+            .addType(callbackAsyncHandlerTypeSpec)
             .addType(callbackListenerTypeSpec)
-            .build();
+            .addType(filteredListenerType);
+
+        if (indexed)
+            callbackTypeBuilder
+                .addMethod(registerIndexedListener)
+                .addMethod(registerIndexedListenerWithStringKey);
+
+        if (primitiveIndex)
+            callbackTypeBuilder.addType(listenerIndexTypeSpec);
+
+        if (getCallbackAnnotation().pooled())
+            addPooling(callbackTypeBuilder, objectClass, objectParameter, typeVariables);
+
+        if (journaled)
+            addJournal(callbackTypeBuilder, objectClass, journalField, !typeVariables.isEmpty());
+
+        callbackTypeBuilder
+            .addField(subtypeDispatchField)
+            .addMethod(getHandlerSnapshot)
+            .addMethod(getAsyncHandlerSnapshot)
+            .addMethod(getHandlerPrioritySnapshot)
+            .addMethod(addSubtypeDispatch)
+            .addMethod(dispatchListeners);
+
+        if (polymorphic)
+            callbackTypeBuilder
+                .addField(inheritedHandlersRefreshField)
+                .addMethod(refreshInheritedHandlers)
+                .addMethod(hasInheritedListeners);
+
+        callbackTypeBuilder
+            .addField(ringBufferField)
+            .addMethod(enableListenerRingBuffer)
+            .addMethod(disableListenerRingBuffer)
+            .addType(buildListenerSlotClass(objectClass, callbackListenerClass, !typeVariables.isEmpty()));
+
+        if (coalescing)
+            callbackTypeBuilder
+                .addField(coalescerField)
+                .addMethod(setCoalescing)
+                .addMethod(setCoalescingWithMerge)
+                .addMethod(setCoalescingWithExecutor)
+                .addMethod(invokeCoalesced)
+                .addMethod(flushCoalesced);
+
+        if (!staticHandlers.isEmpty())
+            addStaticHandlers(callbackTypeBuilder, callbackHandlerClass);
+
+        // Handlers and listeners of generic callbacks are shared by every parameterization, so their
+        // snapshots are raw. Suppressed on the whole type to keep -Werror builds of users green
+        if (!typeVariables.isEmpty())
+            callbackTypeBuilder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "{$S, $S}", "unchecked", "rawtypes").build());
+
+        TypeSpec callbackType = callbackTypeBuilder.build();
 
         JavaFile callbackFile = JavaFile.builder(packageName.toString(), callbackType)
             .build();
@@ -247,12 +1680,561 @@ public final class CallbackAnnotatedClass {
         return callbackFile;
     }
 
+    /**
+     * Adds the handlers declared with {@code @StaticHandler}, which are registered like any other
+     * handler when the callback is loaded, and the flag that lets {@code invoke} call them directly.
+     */
+    private void addStaticHandlers(TypeSpec.Builder callbackTypeBuilder, ClassName callbackHandlerClass) {
+        var registerStaticHandlers = MethodSpec.methodBuilder("registerStaticHandlers")
+            .addModifiers(Modifier.PRIVATE)
+            .beginControlFlow("synchronized (registrationLock)");
+
+        for (int i = 0; i < staticHandlers.size(); i++) {
+            final StaticHandlerMethod staticHandler = staticHandlers.get(i);
+            callbackTypeBuilder
+                .addField(FieldSpec.builder(IdentifierKey.class, "STATIC_HANDLER_KEY_" + i, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.parse($S).intern()", IdentifierKey.class, staticHandler.key())
+                    .build())
+                .addField(FieldSpec.builder(callbackHandlerClass, "STATIC_HANDLER_" + i, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T::$L", staticHandler.owner(), staticHandler.methodName())
+                    .build());
+
+            registerStaticHandlers
+                .addStatement("callbackHandlers.put(STATIC_HANDLER_KEY_$L, STATIC_HANDLER_$L)", i, i)
+                .addStatement("handlerPriorities.put(STATIC_HANDLER_KEY_$L, $L)", i, staticHandler.priority());
+        }
+
+        callbackTypeBuilder
+            .addField(FieldSpec.builder(TypeName.BOOLEAN, "staticDispatch", Modifier.PRIVATE, Modifier.VOLATILE).build())
+            .addMethod(registerStaticHandlers
+                .addStatement("rebuildHandlers()")
+                .endControlFlow()
+                .build());
+    }
+
+    /**
+     * Builds {@code invokeAll}, which runs each handler over the whole batch before moving to the
+     * next one, and triggers each listener once per batch with the values of every callback that
+     * was not cancelled.
+     */
+    private MethodSpec buildInvokeAllMethod(ClassName objectClass, ArrayTypeName arrayOfObjects, ArrayTypeName arrayOfCallbackHandlers, ArrayTypeName arrayOfCallbackListeners,
+            ArrayTypeName arrayOfFilteredListeners, TypeName indexedListenersType, ClassName callbackHandlerClass, ClassName callbackListenerClass,
+            Collection<TypeVariableName> typeVariables, String cancelCheck, boolean indexed) {
+        final Map<String, TypeMirror> parameters = getConstructorParameters();
+
+        var builder = MethodSpec.methodBuilder("invokeAll")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(arrayOfObjects, "callbacks");
+
+        if (getCallbackAnnotation().journaled())
+            builder
+                .addStatement("final $T journal = this.journal", ParameterizedTypeName.get(ClassName.get(EventJournal.class), objectClass))
+                .beginControlFlow("if (journal != null)")
+                .beginControlFlow("for (int i = 0; i < callbacks.length; i++)")
+                .addStatement("journal.record(callbacks[i])")
+                .endControlFlow()
+                .endControlFlow();
+
+        builder
+            .addStatement("final $T metrics = this.metrics", CallbackMetrics.class)
+            .beginControlFlow("if (metrics != null)")
+            .beginControlFlow("for (int i = 0; i < callbacks.length; i++)")
+            .addStatement("metrics.recordInvocation($T.class)", objectClass)
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("final $T handlers = this.handlers", arrayOfCallbackHandlers)
+            .addStatement("final $T listeners = this.listeners", arrayOfCallbackListeners)
+            .addStatement("final $T filteredListeners = this.filteredListeners", arrayOfFilteredListeners)
+            .addCode(indexed ? CodeBlock.of("final $T indexedListeners = this.indexedListeners;\n", indexedListenersType) : CodeBlock.of(""))
+            .beginControlFlow("if (callbacks.length == 0 || (handlers.length == 0 && listeners.length == 0 && " + getNoFilteredListenersCheck(indexed) + getNoInheritedListenersCheck() + "))")
+            .addStatement("return")
+            .endControlFlow()
+            .beginControlFlow("for ($T handler : handlers)", callbackHandlerClass)
+            .beginControlFlow("for (int i = 0; i < callbacks.length; i++)")
+            .addStatement("final $T callback = callbacks[i]", arrayOfObjects.componentType());
+
+        if (cancelCheck != null)
+            builder
+                .beginControlFlow("if (" + cancelCheck + ")")
+                .addStatement("continue")
+                .endControlFlow();
+
+        builder
+            .addStatement("handler.handle(callback)")
+            .endControlFlow()
+            .endControlFlow();
+
+        // Filtered and indexed listeners are matched and triggered per callback, outside of the batch
+        builder
+            .beginControlFlow("if (!(" + getNoFilteredListenersCheck(indexed) + "))")
+            .addStatement("final $T noListeners = new $T[0]", arrayOfCallbackListeners, callbackListenerClass)
+            .beginControlFlow("for (int i = 0; i < callbacks.length; i++)")
+            .addStatement("final $T callback = callbacks[i]", arrayOfObjects.componentType());
+
+        if (cancelCheck != null)
+            builder
+                .beginControlFlow("if (" + cancelCheck + ")")
+                .addStatement("continue")
+                .endControlFlow();
+
+        builder
+            .addStatement("final $T matches = matchListeners(callback, noListeners, filteredListeners" + (indexed ? ", indexedListeners" : "") + ")", arrayOfCallbackListeners)
+            .beginControlFlow("if (matches.length > 0)")
+            .addStatement("triggerListeners(callback, matches, metrics)")
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow();
+
+        // Supertype listeners have their own parameters, so their callback dispatches them one by one
+        if (isPolymorphic()) {
+            builder
+                .beginControlFlow("if (hasInheritedListeners())")
+                .beginControlFlow("for (int i = 0; i < callbacks.length; i++)")
+                .addStatement("final $T callback = callbacks[i]", arrayOfObjects.componentType());
+
+            if (cancelCheck != null)
+                builder
+                    .beginControlFlow("if (" + cancelCheck + ")")
+                    .addStatement("continue")
+                    .endControlFlow();
+
+            builder
+                .addStatement("$T.INSTANCE.dispatchListeners(callback)", getSuperCallbackClass())
+                .endControlFlow()
+                .endControlFlow();
+        }
+
+        builder
+            .beginControlFlow("if (listeners.length == 0)")
+            .addStatement("return")
+            .endControlFlow();
+
+        // The ring buffer already copies every callback into a slot, so there is nothing to batch
+        builder
+            .beginControlFlow("if (this.listenerRingBuffer != null)")
+            .beginControlFlow("for (int i = 0; i < callbacks.length; i++)")
+            .addStatement("final $T callback = callbacks[i]", arrayOfObjects.componentType());
+
+        if (cancelCheck != null)
+            builder
+                .beginControlFlow("if (" + cancelCheck + ")")
+                .addStatement("continue")
+                .endControlFlow();
+
+        builder
+            .addStatement("triggerListeners(callback, listeners, metrics)")
+            .endControlFlow()
+            .addStatement("return")
+            .endControlFlow();
+
+        // One array per listener parameter, holding the values of every callback that was not cancelled
+        parameters.forEach((name, type) -> {
+            builder.addStatement("final $T $N = new $T[callbacks.length]", ArrayTypeName.of(TypeName.get(typeUtils.erasure(type))), getBatchValuesName(name), TypeName.get(typeUtils.erasure(type)));
+        });
+
+        builder
+            .addStatement("int count = 0")
+            .beginControlFlow("for (int i = 0; i < callbacks.length; i++)")
+            .addStatement("final $T callback = callbacks[i]", arrayOfObjects.componentType());
+
+        if (cancelCheck != null)
+            builder
+                .beginControlFlow("if (" + cancelCheck + ")")
+                .addStatement("continue")
+                .endControlFlow();
+
+        parameters.forEach((name, type) -> {
+            builder.addStatement("$N[count] = callback.$L", getBatchValuesName(name), getFieldGetter(name));
+        });
+
+        final CodeBlock batchArguments = parameters.entrySet().stream()
+            .map(entry -> {
+                final String value = getBatchValuesName(entry.getKey()) + "[j]";
+                if (!isErased(entry.getValue()))
+                    return CodeBlock.of("($T) $L", TypeName.get(entry.getValue()), value);
+
+                return CodeBlock.of("$L", value);
+            })
+            .collect(CodeBlock.joining(", "));
+
+        builder
+            .addStatement("count++")
+            .endControlFlow()
+            .beginControlFlow("if (count == 0)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("final int size = count")
+            .addStatement("$T executor = this.listenerExecutor", Executor.class)
+            .beginControlFlow("if (executor == null)")
+            .addStatement("executor = $T.getDefault()", ListenerExecutors.class)
+            .endControlFlow()
+            .beginControlFlow("if (batchListeners)")
+            .beginControlFlow("executeListenerTask(executor, () ->")
+            .beginControlFlow("for ($T listener : listeners)", callbackListenerClass)
+            .beginControlFlow("for (int j = 0; j < size; j++)")
+            .addStatement("listener.trigger($L)", batchArguments)
+            .endControlFlow()
+            .endControlFlow()
+            .addCode("$<}, listeners.length * size, metrics);\n")
+            .nextControlFlow("else")
+            .beginControlFlow("for (int i = 0; i < listeners.length; i++)")
+            .addStatement("final $T listener = listeners[i]", callbackListenerClass)
+            .beginControlFlow("executeListenerTask(executor, () ->")
+            .beginControlFlow("for (int j = 0; j < size; j++)")
+            .addStatement("listener.trigger($L)", batchArguments)
+            .endControlFlow()
+            .addCode("$<}, size, metrics);\n")
+            .endControlFlow()
+            .endControlFlow();
+
+        // The batch arrays are erased, so values of parameterized types are cast back when triggering
+        if (!typeVariables.isEmpty() || !parameters.values().stream().allMatch(this::isErased))
+            builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "{$S, $S}", "unchecked", "rawtypes").build());
+
+        return builder.build();
+    }
+
+    private boolean isErased(TypeMirror type) {
+        return typeUtils.isSameType(type, typeUtils.erasure(type));
+    }
+
+    /**
+     * Adds the listener dispatch that follows the handlers in {@code invoke} and {@code invokeAsync}. Filtered
+     * and indexed listeners are matched inline, so that a listener that does not match never gets a task.
+     */
+    private void addListenerDispatch(MethodSpec.Builder builder, String cancelCheck, boolean indexed) {
+        final String notCancelled = cancelCheck == null ? "" : " && !" + cancelCheck;
+
+        builder
+            .beginControlFlow("if (!(" + getNoFilteredListenersCheck(indexed) + ")" + notCancelled + ")")
+            .addStatement("final $T matches = matchListeners(callback, listeners, filteredListeners" + (indexed ? ", indexedListeners" : "") + ")", ArrayTypeName.of(ClassName.get(packageName.toString(), getGeneratedCallbackClassName(), simpleName + LISTENER_SUFFIX)))
+            .beginControlFlow("if (matches.length > 0)")
+            .addStatement("triggerListeners(callback, matches, metrics)")
+            .endControlFlow()
+            .nextControlFlow("else if (listeners.length > 0" + notCancelled + ")")
+            .addStatement("triggerListeners(callback, listeners, metrics)")
+            .endControlFlow();
+
+        if (isPolymorphic())
+            builder
+                .beginControlFlow("if (hasInheritedListeners()" + notCancelled + ")")
+                .addStatement("$T.INSTANCE.dispatchListeners(callback)", getSuperCallbackClass())
+                .endControlFlow();
+    }
+
+    private String getNoInheritedListenersCheck() {
+        return isPolymorphic() ? " && !hasInheritedListeners()" : "";
+    }
+
+    private boolean isPolymorphic() {
+        return getCallbackAnnotation().polymorphic() && superCallback != null;
+    }
+
+    private String getNoFilteredListenersCheck(boolean indexed) {
+        return indexed ? "filteredListeners.length == 0 && indexedListeners.isEmpty()" : "filteredListeners.length == 0";
+    }
+
+    /**
+     * Adds {@code acquire} and {@code release}. Reused instances get their constructor arguments
+     * assigned field by field, so the constructor only runs for instances the pool could not provide.
+     */
+    private void addPooling(TypeSpec.Builder callbackTypeBuilder, ClassName objectClass, ParameterSpec objectParameter, Collection<TypeVariableName> typeVariables) {
+        final boolean generic = !typeVariables.isEmpty();
+        final String arguments = constructorArguments.keySet().stream()
+            .map(this::getArgumentName)
+            .collect(Collectors.joining(", "));
+
+        var pool = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(EventPool.class), objectClass), "POOL", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("new $T<>()", EventPool.class)
+            .build();
+
+        var acquire = MethodSpec.methodBuilder("acquire")
+            .addJavadoc("Returns a released object with its constructor arguments assigned to the fields of the same name, or a new one if\nthe current thread has none. Reused objects do not run the constructor again, so any validation or defensive\ncopy it makes only applies to new ones.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .returns(objectParameter.type());
+
+        constructorArguments.forEach((name, type) -> acquire.addParameter(TypeName.get(type), getArgumentName(name)));
+
+        acquire
+            .addStatement("final $T callback = POOL.poll()", objectParameter.type())
+            .beginControlFlow("if (callback == null)")
+            .addStatement(generic ? "return new $T<>(" + arguments + ")" : "return new $T(" + arguments + ")", objectClass)
+            .endControlFlow();
+
+        constructorArguments.keySet().forEach(name -> acquire.addStatement("callback.$N = $N", name, getArgumentName(name)));
+        if (cancelCheck != null)
+            acquire.addStatement("callback.$N = false", getCallbackAnnotation().cancelField());
+
+        acquire.addStatement("return callback");
+        if (generic)
+            acquire.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+
+        var release = MethodSpec.methodBuilder("release")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addParameter(objectParameter)
+            .addStatement("POOL.offer(callback)")
+            .build();
+
+        var clearPool = MethodSpec.methodBuilder("clearPool")
+            .addJavadoc("Discards the objects released on the current thread. Threads that outlive the class loader of this callback\nmust call it before that loader is unloaded.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("POOL.clear()")
+            .build();
+
+        callbackTypeBuilder
+            .addField(pool)
+            .addMethod(acquire.build())
+            .addMethod(release)
+            .addMethod(clearPool);
+    }
+
+    /**
+     * Adds {@code startJournal}, {@code stopJournal} and {@code replayJournal}, along with the entry
+     * that encodes the constructor arguments of each recorded callback. Replaying passes the decoded
+     * arguments to the same constructor, so the arguments are all that needs to be recorded.
+     */
+    private void addJournal(TypeSpec.Builder callbackTypeBuilder, ClassName objectClass, FieldSpec journalField, boolean generic) {
+        final ClassName journalEntryClass = getGeneratedCallbackClass().nestedClass(JOURNAL_ENTRY_CLASS);
+
+        var entryBuilder = TypeSpec.classBuilder(JOURNAL_ENTRY_CLASS)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addSuperinterface(ParameterizedTypeName.get(ClassName.get(EventJournal.Entry.class), objectClass));
+
+        var load = MethodSpec.methodBuilder("load")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(objectClass, "callback");
+
+        var writeTo = MethodSpec.methodBuilder("writeTo")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ByteBuffer.class, "buffer");
+
+        var clear = MethodSpec.methodBuilder("clear")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC);
+
+        var replayBody = CodeBlock.builder();
+
+        constructorArguments.forEach((name, type) -> {
+            final String fieldName = getArgumentName(name);
+            entryBuilder.addField(TypeName.get(type), fieldName, Modifier.PRIVATE);
+            load.addStatement("this.$N = callback.$L", fieldName, getFieldGetter(name));
+            writeTo.addCode(getJournalWrite(CodeBlock.of("this.$N", fieldName), type));
+            if (!type.getKind().isPrimitive())
+                clear.addStatement("this.$N = null", fieldName);
+
+            replayBody.addStatement("final $T $N = $L", TypeName.get(type), fieldName, getJournalRead(type));
+        });
+
+        final String arguments = constructorArguments.keySet().stream()
+            .map(this::getArgumentName)
+            .collect(Collectors.joining(", "));
+        replayBody.addStatement(generic ? "invoke(new $T<>(" + arguments + "))" : "invoke(new $T(" + arguments + "))", objectClass);
+
+        var startJournal = MethodSpec.methodBuilder("startJournal")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Path.class, "directory")
+            .addException(IOException.class)
+            .returns(ParameterizedTypeName.get(ClassName.get(EventJournal.class), WildcardTypeName.subtypeOf(Object.class)))
+            // Journals are closed outside the lock, since closing waits for their pending records to be written
+            .addStatement("stopJournal()")
+            .addStatement("final $T journal = $T.open(directory, $T::new)", journalField.type(), EventJournal.class, journalEntryClass)
+            .addStatement("final $T previous", journalField.type())
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("previous = this.journal")
+            .addStatement("this.journal = journal")
+            .endControlFlow()
+            .beginControlFlow("if (previous != null)")
+            .addStatement("previous.close()")
+            .endControlFlow()
+            .addStatement("return journal")
+            .build();
+
+        var stopJournal = MethodSpec.methodBuilder("stopJournal")
+            .addModifiers(Modifier.PUBLIC)
+            .addException(IOException.class)
+            .addStatement("final $T journal", journalField.type())
+            .beginControlFlow("synchronized (registrationLock)")
+            .addStatement("journal = this.journal")
+            .addStatement("this.journal = null")
+            .endControlFlow()
+            .beginControlFlow("if (journal != null)")
+            .addStatement("journal.close()")
+            .endControlFlow()
+            .build();
+
+        var replayJournal = MethodSpec.methodBuilder("replayJournal")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Path.class, "directory")
+            .addException(IOException.class)
+            .returns(TypeName.LONG)
+            .beginControlFlow("return $T.replay(directory, (timestamp, buffer) ->", EventJournal.class)
+            .addCode(replayBody.build())
+            .addCode("$<});\n")
+            .build();
+
+        callbackTypeBuilder
+            .addField(journalField)
+            .addMethod(startJournal)
+            .addMethod(stopJournal)
+            .addMethod(replayJournal)
+            .addType(entryBuilder
+                .addMethod(load.build())
+                .addMethod(writeTo.build())
+                .addMethod(clear.build())
+                .build());
+    }
+
+    /**
+     * Returns the statements that encode {@code value} into {@code buffer}. Wrappers are preceded by
+     * whether they are present, strings by their length and enums are written as their name.
+     */
+    private CodeBlock getJournalWrite(CodeBlock value, TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return CodeBlock.builder().addStatement(getPrimitiveWrite(value, type.getKind())).build();
+
+        final TypeKind unboxedKind = getUnboxedKind(type);
+        if (unboxedKind != null)
+            return CodeBlock.builder()
+                .beginControlFlow("if ($T.writePresence(buffer, $L))", JournalCodec.class, value)
+                .addStatement(getPrimitiveWrite(value, unboxedKind))
+                .endControlFlow()
+                .build();
+
+        if (isEnum(type))
+            return CodeBlock.builder().addStatement("$T.writeEnum(buffer, $L)", JournalCodec.class, value).build();
+
+        return CodeBlock.builder().addStatement("$T.writeString(buffer, $L)", JournalCodec.class, value).build();
+    }
+
+    private CodeBlock getJournalRead(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return getPrimitiveRead(type.getKind());
+
+        final TypeKind unboxedKind = getUnboxedKind(type);
+        if (unboxedKind != null)
+            return CodeBlock.of("$T.readPresence(buffer) ? $L : null", JournalCodec.class, getPrimitiveRead(unboxedKind));
+
+        if (isEnum(type))
+            return CodeBlock.of("$T.readEnum(buffer, $T.class)", JournalCodec.class, TypeName.get(typeUtils.erasure(type)));
+
+        return CodeBlock.of("$T.readString(buffer)", JournalCodec.class);
+    }
+
+    private CodeBlock getPrimitiveWrite(CodeBlock value, TypeKind kind) {
+        return switch (kind) {
+            case BOOLEAN -> CodeBlock.of("buffer.put((byte) ($L ? 1 : 0))", value);
+            case BYTE -> CodeBlock.of("buffer.put($L)", value);
+            case SHORT -> CodeBlock.of("buffer.putShort($L)", value);
+            case CHAR -> CodeBlock.of("buffer.putChar($L)", value);
+            case INT -> CodeBlock.of("buffer.putInt($L)", value);
+            case LONG -> CodeBlock.of("buffer.putLong($L)", value);
+            case FLOAT -> CodeBlock.of("buffer.putFloat($L)", value);
+            case DOUBLE -> CodeBlock.of("buffer.putDouble($L)", value);
+            default -> throw new IllegalArgumentException("Not a primitive type: " + kind);
+        };
+    }
+
+    private CodeBlock getPrimitiveRead(TypeKind kind) {
+        return switch (kind) {
+            case BOOLEAN -> CodeBlock.of("buffer.get() != 0");
+            case BYTE -> CodeBlock.of("buffer.get()");
+            case SHORT -> CodeBlock.of("buffer.getShort()");
+            case CHAR -> CodeBlock.of("buffer.getChar()");
+            case INT -> CodeBlock.of("buffer.getInt()");
+            case LONG -> CodeBlock.of("buffer.getLong()");
+            case FLOAT -> CodeBlock.of("buffer.getFloat()");
+            case DOUBLE -> CodeBlock.of("buffer.getDouble()");
+            default -> throw new IllegalArgumentException("Not a primitive type: " + kind);
+        };
+    }
+
+    private TypeKind getUnboxedKind(TypeMirror type) {
+        try {
+            return typeUtils.unboxedType(type).getKind();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && typeUtils.asElement(type).getKind() == ElementKind.ENUM;
+    }
+
+    private boolean isString(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && ((TypeElement) typeUtils.asElement(type)).getQualifiedName().contentEquals(String.class.getName());
+    }
+
+    /**
+     * Builds the ring buffer slot of the callback, holding one field per listener parameter. Type
+     * variables of generic callbacks are erased since the slot is shared by every parameterization.
+     */
+    private TypeSpec buildListenerSlotClass(ClassName objectClass, ClassName callbackListenerClass, boolean generic) {
+        final Map<String, TypeMirror> parameters = getConstructorParameters();
+        final var arrayOfCallbackListeners = ArrayTypeName.of(callbackListenerClass);
+
+        var slotBuilder = TypeSpec.classBuilder(LISTENER_SLOT_CLASS)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addSuperinterface(ParameterizedTypeName.get(ClassName.get(ListenerRingBuffer.Slot.class), objectClass, arrayOfCallbackListeners))
+            .addField(arrayOfCallbackListeners, "listeners", Modifier.PRIVATE);
+
+        var load = MethodSpec.methodBuilder("load")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(objectClass, "callback")
+            .addParameter(arrayOfCallbackListeners, "listeners");
+
+        var dispatch = MethodSpec.methodBuilder("dispatch")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("final $T listeners = this.listeners", arrayOfCallbackListeners)
+            .addStatement("this.listeners = null");
+
+        parameters.forEach((name, type) -> {
+            final TypeName fieldType = TypeName.get(generic ? typeUtils.erasure(type) : type);
+            final String fieldName = getArgumentName(name);
+            slotBuilder.addField(fieldType, fieldName, Modifier.PRIVATE);
+            load.addStatement("this.$N = callback.$L", fieldName, getFieldGetter(name));
+            dispatch.addStatement("final $T $N = this.$N", fieldType, fieldName, fieldName);
+            if (!fieldType.isPrimitive())
+                dispatch.addStatement("this.$N = null", fieldName);
+        });
+
+        // Listeners run one after another here, so a failing listener must not skip the others
+        load.addStatement("this.listeners = listeners");
+        dispatch
+            .beginControlFlow("for ($T listener : listeners)", callbackListenerClass)
+            .beginControlFlow("try")
+            .addStatement("listener.trigger(" + getParameterArguments() + ")")
+            .nextControlFlow("catch ($T t)", Throwable.class)
+            .addStatement("final $T thread = $T.currentThread()", Thread.class, Thread.class)
+            .addStatement("thread.getUncaughtExceptionHandler().uncaughtException(thread, t)")
+            .endControlFlow()
+            .endControlFlow();
+
+        if (generic)
+            dispatch.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+
+        return slotBuilder
+            .addMethod(load.build())
+            .addMethod(dispatch.build())
+            .build();
+    }
+
+    private String getBatchValuesName(String parameterName) {
+        return parameterName + "Values";
+    }
+
     private ArrayList<ParameterSpec> getParametersAsSpecs() {
         final ArrayList<ParameterSpec> parameterSpecs = new ArrayList<>();
 
         getConstructorParameters().entrySet().stream()
             .map(entry -> {
-                return ParameterSpec.builder(ClassName.get(entry.getValue()), entry.getKey())  
+                return ParameterSpec.builder(TypeName.get(entry.getValue()), entry.getKey())
                     .build();
             })
             .forEach(parameterSpecs::add);
@@ -261,6 +2243,16 @@ public final class CallbackAnnotatedClass {
     }
 
     private Map<String, TypeMirror> getConstructorParameters() {
+        return constructorParameters;
+    }
+
+    private Map<String, TypeMirror> findConstructorParameters() {
+        final Map<String, TypeMirror> parametersMap = new LinkedHashMap<>(constructorArguments);
+        parametersMap.putAll(getExtraParameters());
+        return Collections.unmodifiableMap(parametersMap);
+    }
+
+    private Map<String, TypeMirror> findConstructorArguments() {
         final Map<String, TypeMirror> parametersMap = new LinkedHashMap<>();
 
         int currentConstructorIndex = 1;
@@ -286,37 +2278,47 @@ public final class CallbackAnnotatedClass {
 
         }
 
-        parametersMap.putAll(getExtraParameters());
-        return parametersMap;
+        return Collections.unmodifiableMap(parametersMap);
     }
 
     private Map<String, TypeMirror> getExtraParameters() {
         final Map<String, TypeMirror> parametersMap = new LinkedHashMap<>();
 
-        final ArrayList<CallbackField> fieldGetters = new ArrayList<>();
-        fieldGetters.addAll(Arrays.asList(typeElement.getAnnotationsByType(CallbackField.class)));
-
-        final CallbackFields fieldGettersAnnotation = typeElement.getAnnotation(CallbackFields.class);
-        if (fieldGettersAnnotation != null)
-            fieldGetters.addAll(Arrays.asList(fieldGettersAnnotation.value()));
+        final Map<String, Element> fields = new HashMap<>();
+        for (Element enclosedElement : typeElement.getEnclosedElements()) {
+            if (enclosedElement.getKind().equals(ElementKind.FIELD))
+                fields.put(enclosedElement.getSimpleName().toString(), enclosedElement);
+        }
 
-        for (CallbackField callbackFieldGetter : fieldGetters) {
+        for (CallbackField callbackFieldGetter : callbackFields) {
             if (!callbackFieldGetter.isExtraParameter())
                 continue;
 
-            for (Element enclosedElement : typeElement.getEnclosedElements()) {
-                if (!enclosedElement.getKind().equals(ElementKind.FIELD)) // skull emoji
-                    continue;
+            final Element field = fields.get(callbackFieldGetter.field());
+            if (field != null)
+                parametersMap.put(field.toString(), field.asType());
+        }
+
+        return parametersMap;
+    }
 
-                if (!enclosedElement.getSimpleName().toString().equals(callbackFieldGetter.field()))
-                    continue;
+    private List<CallbackField> findCallbackFields() {
+        final ArrayList<CallbackField> callbackFields = new ArrayList<>();
+        callbackFields.addAll(Arrays.asList(typeElement.getAnnotationsByType(CallbackField.class)));
 
-                parametersMap.put(enclosedElement.toString(), enclosedElement.asType());
-            }
-        } 
+        final CallbackFields callbackFieldsAnnotation = typeElement.getAnnotation(CallbackFields.class);
+        if (callbackFieldsAnnotation != null)
+            callbackFields.addAll(Arrays.asList(callbackFieldsAnnotation.value()));
 
-        return parametersMap;
+        return List.copyOf(callbackFields);
+    }
 
+    private Map<String, String> findFieldGetters() {
+        final Map<String, String> fieldGetters = new HashMap<>();
+        for (CallbackField callbackField : callbackFields)
+            fieldGetters.putIfAbsent(callbackField.field(), callbackField.getter());
+
+        return fieldGetters;
     }
 
     private Collection<TypeVariableName> getTypeVariableNames() {
@@ -332,53 +2334,198 @@ public final class CallbackAnnotatedClass {
             .toList();
     }
 
-    private String getParameterGetters() {
-        var parameterNames = getConstructorParameters().keySet();
-        String objectFieldsString = "";
+    /**
+     * Declares one local variable per listener parameter, holding the value read from
+     * {@code callback}. Listeners are triggered with these values (see {@link #getParameterArguments()})
+     * so that every getter runs once per invocation, no matter how many listeners are registered.
+     */
+    private CodeBlock getParameterCaptures() {
+        final CodeBlock.Builder captures = CodeBlock.builder();
 
-        for (int i = 0; i < parameterNames.size(); i++) {
-            objectFieldsString = objectFieldsString + "callback." + getFieldGetter((String) parameterNames.toArray()[i]);
+        getConstructorParameters().forEach((name, type) -> {
+            captures.addStatement("final $T $N = callback.$L", TypeName.get(type), getArgumentName(name), getFieldGetter(name));
+        });
 
-            if (i < parameterNames.size() - 1)
-                objectFieldsString = objectFieldsString + ", ";
-        }
+        return captures.build();
+    }
+
+    private String getParameterArguments() {
+        return getConstructorParameters().keySet().stream()
+            .map(this::getArgumentName)
+            .collect(Collectors.joining(", "));
+    }
+
+    private String getArgumentName(String parameterName) {
+        if (RESERVED_LOCAL_NAMES.contains(parameterName))
+            return parameterName + "Argument";
 
-        return objectFieldsString;
+        return parameterName;
     }
 
     private String getFieldGetter(String fieldName) {
-        var getter = fieldName;
         if (typeElement.getKind().equals(ElementKind.RECORD))
-            return getter + "()";
+            return fieldName + "()";
 
-        final ArrayList<CallbackField> fieldGetters = new ArrayList<>();
-        fieldGetters.addAll(Arrays.asList(typeElement.getAnnotationsByType(CallbackField.class)));
+        return fieldGetters.getOrDefault(fieldName, fieldName);
+    }
 
-        final CallbackFields fieldGettersAnnotation = typeElement.getAnnotation(CallbackFields.class);
-        if (fieldGettersAnnotation != null)
-            fieldGetters.addAll(Arrays.asList(fieldGettersAnnotation.value()));
+    /**
+     * Returns the type of the listener parameter named by {@link Callback#listenerIndex()}, or
+     * {@code null} if there is no such parameter.
+     */
+    TypeMirror getListenerIndexType() {
+        return getConstructorParameters().get(getCallbackAnnotation().listenerIndex());
+    }
 
-        for (CallbackField fieldGetterAnnotation : fieldGetters) {
-            if (fieldGetterAnnotation.field().equals(fieldName)) {
-                getter = fieldGetterAnnotation.getter();
-                break;
-            }
+    /**
+     * Returns the constructor arguments (and cancel field) of a pooled callback that cannot be
+     * reassigned when an instance is reused, because there is no field with that name or it is
+     * final or not accessible from the generated class.
+     */
+    List<String> getUnassignablePooledFields() {
+        final List<String> names = new ArrayList<>(constructorArguments.keySet());
+        if (cancelCheck != null)
+            names.add(getCallbackAnnotation().cancelField());
+
+        final List<String> unassignable = new ArrayList<>();
+        for (String name : names) {
+            final Element field = findField(name);
+            if (field == null || field.getModifiers().contains(Modifier.FINAL) || !isAccessible(field))
+                unassignable.add(name);
+        }
+
+        return unassignable;
+    }
+
+    /**
+     * Returns the constructor arguments of a journaled callback whose type cannot be recorded.
+     */
+    List<String> getUnjournaledArguments() {
+        final List<String> unjournaled = new ArrayList<>();
+        constructorArguments.forEach((name, type) -> {
+            if (!type.getKind().isPrimitive() && getUnboxedKind(type) == null && !isEnum(type) && !isString(type))
+                unjournaled.add(name);
+        });
+
+        return unjournaled;
+    }
+
+    /**
+     * Returns the nearest superclass that is annotated with {@link Callback} in this compilation or
+     * whose callback was generated by an earlier one, or {@code null} if there is none.
+     */
+    TypeElement getSuperCallback() {
+        return superCallback;
+    }
+
+    private TypeElement findSuperCallback() {
+        TypeMirror superclass = typeElement.getSuperclass();
+        while (superclass.getKind() == TypeKind.DECLARED) {
+            final TypeElement superElement = (TypeElement) typeUtils.asElement(superclass);
+            if (superElement.getAnnotation(Callback.class) != null)
+                return superElement;
+
+            final String generatedName = elementUtils.getPackageOf(superElement).getQualifiedName() + "." + getNestedTypePath(superElement) + CALLBACK_SUFFIX;
+            if (elementUtils.getTypeElement(generatedName) != null)
+                return superElement;
+
+            superclass = superElement.getSuperclass();
+        }
+
+        return null;
+    }
+
+    private ClassName getSuperCallbackClass() {
+        final String superPackage = elementUtils.getPackageOf(superCallback).getQualifiedName().toString();
+        return ClassName.get(superPackage, getNestedTypePath(superCallback) + CALLBACK_SUFFIX);
+    }
+
+    private Element findField(String name) {
+        for (Element member : elementUtils.getAllMembers(typeElement)) {
+            if (member.getKind() == ElementKind.FIELD && member.getSimpleName().contentEquals(name))
+                return member;
         }
 
-        return getter;
+        return null;
+    }
+
+    /**
+     * Returns the type of the listener parameter named by {@link Callback#coalesceKey()}, or
+     * {@code null} if there is no such parameter.
+     */
+    TypeMirror getCoalesceKeyType() {
+        return getConstructorParameters().get(getCallbackAnnotation().coalesceKey());
+    }
+
+    /**
+     * Returns the expression that tells whether {@code callback} has been cancelled, or
+     * {@code null} if the class has no boolean field matching {@link Callback#cancelField()}.
+     */
+    String getCancelCheck() {
+        return cancelCheck;
+    }
+
+    private String findCancelCheck() {
+        final String cancelField = getCallbackAnnotation().cancelField();
+        final Element field = findBooleanField(cancelField);
+        if (field == null || !isReadable(field))
+            return null;
+
+        if (field.asType().getKind() == TypeKind.BOOLEAN)
+            return "callback." + getFieldGetter(cancelField);
+
+        return "Boolean.TRUE.equals(callback." + getFieldGetter(cancelField) + ")";
+    }
+
+    /**
+     * Whether the cancel field exists and is a boolean, but the generated class can neither read it
+     * directly nor through a {@code @CallbackField} getter.
+     */
+    boolean isCancelFieldUnreachable() {
+        final Element field = findBooleanField(getCallbackAnnotation().cancelField());
+        return field != null && !isReadable(field);
+    }
+
+    private Element findBooleanField(String name) {
+        final Element field = findField(name);
+        if (field == null)
+            return null;
+
+        final TypeMirror type = field.asType();
+        if (type.getKind() == TypeKind.BOOLEAN || type.toString().equals(Boolean.class.getName()))
+            return field;
+
+        return null;
+    }
+
+    private boolean isReadable(Element field) {
+        final String name = field.getSimpleName().toString();
+        if (typeElement.getKind() == ElementKind.RECORD || fieldGetters.containsKey(name))
+            return true;
+
+        return isAccessible(field);
+    }
+
+    // Whether the generated class, which lives in the callback's package, can access the field directly
+    private boolean isAccessible(Element field) {
+        if (field.getModifiers().contains(Modifier.PRIVATE))
+            return false;
+
+        return field.getModifiers().contains(Modifier.PUBLIC)
+            || elementUtils.getPackageOf(field).getQualifiedName().contentEquals(packageName);
     }
 
     private String getGeneratedCallbackClassName() {
-        return getNestedTypePath() + CALLBACK_SUFFIX;
+        return getNestedTypePath(typeElement) + CALLBACK_SUFFIX;
     }
 
     private ClassName getGeneratedCallbackClass() {
         return ClassName.get(packageName.toString(), getGeneratedCallbackClassName());
     }
 
-    private String getNestedTypePath() {
+    private static String getNestedTypePath(TypeElement typeElement) {
         if (typeElement.getNestingKind() == NestingKind.TOP_LEVEL) {
-            return simpleName.toString();
+            return typeElement.getSimpleName().toString();
         }
 
         final ArrayList<String> names = new ArrayList<>();
@@ -423,8 +2570,25 @@ public final class CallbackAnnotatedClass {
         return callbackHandlerBuilder.build();
     }
 
+    private TypeSpec buildAsyncHandlerInterface(ParameterSpec objectParameter, Collection<TypeVariableName> typeVariables) {
+        var callbackAsyncHandlerBuilder = TypeSpec.interfaceBuilder(simpleName + ASYNC_HANDLER_SUFFIX)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addAnnotation(FunctionalInterface.class)
+            .addMethod(MethodSpec.methodBuilder("handle")
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .addParameter(objectParameter)
+                .returns(ParameterizedTypeName.get(CompletionStage.class, Void.class))
+                .build());
+
+        if (!typeVariables.isEmpty())
+            callbackAsyncHandlerBuilder = callbackAsyncHandlerBuilder
+                .addTypeVariables(typeVariables);
+
+        return callbackAsyncHandlerBuilder.build();
+    }
+
     private Callback getCallbackAnnotation() {
-        return typeElement.getAnnotation(Callback.class);
+        return callbackAnnotation;
     }
     
 }
@@ -1,27 +1,37 @@
 package ovh.mythmc.callbacks.processor.v1;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
 import javax.tools.Diagnostic;
 
 import com.google.auto.service.AutoService;
 
 import ovh.mythmc.callbacks.annotations.v1.Callback;
 import ovh.mythmc.callbacks.annotations.v1.CallbackField;
+import ovh.mythmc.callbacks.annotations.v1.StaticHandler;
+import ovh.mythmc.callbacks.key.IdentifierKey;
 
 @SupportedAnnotationTypes({
     "ovh.mythmc.callbacks.annotations.v1.Callback",
     "ovh.mythmc.callbacks.annotations.v1.CallbackField",
-    "ovh.mythmc.callbacks.annotations.v1.CallbackFields"
+    "ovh.mythmc.callbacks.annotations.v1.CallbackFields",
+    "ovh.mythmc.callbacks.annotations.v1.StaticHandler"
 })
 @AutoService(javax.annotation.processing.Processor.class)
 public final class CallbackAnnotationProcessor extends AbstractProcessor {
@@ -34,6 +44,12 @@ public final class CallbackAnnotationProcessor extends AbstractProcessor {
             hasErrors |= !validateCallbackFieldUsage(annotatedElement);
         }
 
+        // Static handlers, by the qualified name of their callback class
+        Map<String, List<StaticHandlerMethod>> staticHandlers = new HashMap<>();
+        for (Element annotatedElement : roundEnv.getElementsAnnotatedWith(StaticHandler.class)) {
+            hasErrors |= !collectStaticHandler((ExecutableElement) annotatedElement, staticHandlers);
+        }
+
         if (hasErrors) {
             return true;
         }
@@ -44,12 +60,99 @@ public final class CallbackAnnotationProcessor extends AbstractProcessor {
                 continue;
             }
 
-            generateCallback((TypeElement) annotatedElement);
+            var typeElement = (TypeElement) annotatedElement;
+            generateCallback(typeElement, staticHandlers.getOrDefault(typeElement.getQualifiedName().toString(), List.of()));
         }
 
         return true;
     }
 
+    private boolean collectStaticHandler(ExecutableElement method, Map<String, List<StaticHandlerMethod>> staticHandlers) {
+        AnnotationMirror staticHandlerMirror = null;
+        for (AnnotationMirror annotationMirror : method.getAnnotationMirrors()) {
+            if (annotationMirror.getAnnotationType().toString().equals(StaticHandler.class.getName()))
+                staticHandlerMirror = annotationMirror;
+        }
+
+        DeclaredType callbackType = null;
+        boolean explicitPriority = false;
+        for (var entry : staticHandlerMirror.getElementValues().entrySet()) {
+            var name = entry.getKey().getSimpleName();
+            if (name.contentEquals("value") && entry.getValue().getValue() instanceof DeclaredType declaredType)
+                callbackType = declaredType;
+
+            if (name.contentEquals("priority"))
+                explicitPriority = true;
+        }
+
+        if (callbackType == null)
+            return false;
+
+        var callbackElement = (TypeElement) callbackType.asElement();
+        var callbackAnnotation = callbackElement.getAnnotation(Callback.class);
+        if (callbackAnnotation == null) {
+            error(method, "%s is not annotated with @%s", callbackElement.getQualifiedName(), Callback.class.getSimpleName());
+            return false;
+        }
+
+        if (!method.getModifiers().contains(Modifier.STATIC) || method.getModifiers().contains(Modifier.PRIVATE)) {
+            error(method, "Static handler '%s' must be static and not private", method.getSimpleName());
+            return false;
+        }
+
+        if (method.getParameters().size() != 1 || !processingEnv.getTypeUtils().isAssignable(callbackElement.asType(), method.getParameters().get(0).asType())) {
+            error(method, "Static handler '%s' must take %s as its only parameter", method.getSimpleName(), callbackElement.getSimpleName());
+            return false;
+        }
+
+        // Keeping handlers inside the callback type lets the generated class depend on one source file only
+        if (!isDeclaredInside(method, callbackElement)) {
+            error(method, "Static handler '%s' must be declared inside %s", method.getSimpleName(), callbackElement.getSimpleName());
+            return false;
+        }
+
+        if (!isAccessibleFrom(method, callbackElement)) {
+            error(method, "Static handler '%s' must be accessible from %s", method.getSimpleName(), processingEnv.getElementUtils().getPackageOf(callbackElement));
+            return false;
+        }
+
+        var annotation = method.getAnnotation(StaticHandler.class);
+        if (!IdentifierKey.isValid(annotation.key())) {
+            error(method, "Key '%s' is not namespaced (group:identifier)", annotation.key());
+            return false;
+        }
+
+        var handlers = staticHandlers.computeIfAbsent(callbackElement.getQualifiedName().toString(), name -> new ArrayList<>());
+        for (StaticHandlerMethod handler : handlers) {
+            if (handler.key().equals(annotation.key())) {
+                error(method, "Duplicate static handler key '%s'", annotation.key());
+                return false;
+            }
+        }
+
+        handlers.add(new StaticHandlerMethod(method, annotation.key(), explicitPriority ? annotation.priority() : callbackAnnotation.defaultPriority()));
+        return true;
+    }
+
+    private boolean isDeclaredInside(ExecutableElement method, TypeElement callbackElement) {
+        for (Element element = method.getEnclosingElement(); element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement()) {
+            if (element.equals(callbackElement))
+                return true;
+        }
+
+        return false;
+    }
+
+    private boolean isAccessibleFrom(ExecutableElement method, TypeElement callbackElement) {
+        // Handlers live inside the callback type, so the generated class always shares their package
+        for (Element element = method; !element.equals(callbackElement); element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+        }
+
+        return !callbackElement.getModifiers().contains(Modifier.PRIVATE);
+    }
+
     private boolean validateCallbackFieldUsage(Element annotatedElement) {
         if (annotatedElement.getKind() != ElementKind.CLASS && annotatedElement.getKind() != ElementKind.RECORD) {
             error(annotatedElement, "@%s cannot be used outside classes or records", CallbackField.class);
@@ -102,8 +205,96 @@ public final class CallbackAnnotationProcessor extends AbstractProcessor {
         return true;
     }
 
-    private void generateCallback(TypeElement annotatedElement) {
-        var callbackAnnotatedClass = new CallbackAnnotatedClass(processingEnv, annotatedElement);
+    private boolean validateCancelField(CallbackAnnotatedClass callbackAnnotatedClass) {
+        if (callbackAnnotatedClass.getCancelCheck() != null)
+            return true;
+
+        // The default cancel field is optional (and skipped when it cannot be read), but an explicitly declared one must be usable
+        for (AnnotationMirror annotationMirror : callbackAnnotatedClass.typeElement.getAnnotationMirrors()) {
+            if (!annotationMirror.getAnnotationType().toString().equals(Callback.class.getName()))
+                continue;
+
+            for (var entry : annotationMirror.getElementValues().entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("cancelField"))
+                    continue;
+
+                if (callbackAnnotatedClass.isCancelFieldUnreachable()) {
+                    error(callbackAnnotatedClass.typeElement, "Cancel field '%s' is not accessible from the generated callback (make it non-private or add a @%s getter)",
+                        entry.getValue().getValue(), CallbackField.class.getSimpleName());
+                } else {
+                    error(callbackAnnotatedClass.typeElement, "Cancel field '%s' does not exist or is not a boolean", entry.getValue().getValue());
+                }
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean validateListenerIndex(CallbackAnnotatedClass callbackAnnotatedClass) {
+        var listenerIndex = callbackAnnotatedClass.typeElement.getAnnotation(Callback.class).listenerIndex();
+        if (listenerIndex.isEmpty() || callbackAnnotatedClass.getListenerIndexType() != null)
+            return true;
+
+        error(callbackAnnotatedClass.typeElement, "Listener index '%s' is not a listener parameter", listenerIndex);
+        return false;
+    }
+
+    private boolean validateCoalesceKey(CallbackAnnotatedClass callbackAnnotatedClass) {
+        var coalesceKey = callbackAnnotatedClass.typeElement.getAnnotation(Callback.class).coalesceKey();
+        if (coalesceKey.isEmpty() || callbackAnnotatedClass.getCoalesceKeyType() != null)
+            return true;
+
+        error(callbackAnnotatedClass.typeElement, "Coalesce key '%s' is not a listener parameter", coalesceKey);
+        return false;
+    }
+
+    private boolean validatePolymorphism(CallbackAnnotatedClass callbackAnnotatedClass) {
+        if (!callbackAnnotatedClass.typeElement.getAnnotation(Callback.class).polymorphic() || callbackAnnotatedClass.getSuperCallback() != null)
+            return true;
+
+        error(callbackAnnotatedClass.typeElement, "Polymorphic callback %s does not extend a @%s class", callbackAnnotatedClass.typeElement.getSimpleName(), Callback.class.getSimpleName());
+        return false;
+    }
+
+    private boolean validateJournal(CallbackAnnotatedClass callbackAnnotatedClass) {
+        if (!callbackAnnotatedClass.typeElement.getAnnotation(Callback.class).journaled())
+            return true;
+
+        var unjournaledArguments = callbackAnnotatedClass.getUnjournaledArguments();
+        if (unjournaledArguments.isEmpty())
+            return true;
+
+        error(callbackAnnotatedClass.typeElement, "Journaled callback %s has constructor arguments that cannot be recorded: %s (only primitives, their wrappers, strings and enums can)",
+            callbackAnnotatedClass.typeElement.getSimpleName(), String.join(", ", unjournaledArguments));
+        return false;
+    }
+
+    private boolean validatePooling(CallbackAnnotatedClass callbackAnnotatedClass) {
+        if (!callbackAnnotatedClass.typeElement.getAnnotation(Callback.class).pooled())
+            return true;
+
+        if (callbackAnnotatedClass.typeElement.getKind() == ElementKind.RECORD) {
+            error(callbackAnnotatedClass.typeElement, "Pooled callback %s cannot be a record", callbackAnnotatedClass.typeElement.getSimpleName());
+            return false;
+        }
+
+        var unassignableFields = callbackAnnotatedClass.getUnassignablePooledFields();
+        if (unassignableFields.isEmpty())
+            return true;
+
+        error(callbackAnnotatedClass.typeElement, "Pooled callback %s needs non-final, accessible fields named %s (reused objects get their constructor arguments assigned directly, without running the constructor)", callbackAnnotatedClass.typeElement.getSimpleName(), String.join(", ", unassignableFields));
+        return false;
+    }
+
+    private void generateCallback(TypeElement annotatedElement, List<StaticHandlerMethod> staticHandlers) {
+        var callbackAnnotatedClass = new CallbackAnnotatedClass(processingEnv, annotatedElement, staticHandlers);
+        if (!validateCancelField(callbackAnnotatedClass) || !validateListenerIndex(callbackAnnotatedClass) || !validateCoalesceKey(callbackAnnotatedClass)
+                || !validatePooling(callbackAnnotatedClass) || !validatePolymorphism(callbackAnnotatedClass)
+                || !validateJournal(callbackAnnotatedClass))
+            return;
+
         try {
             callbackAnnotatedClass.buildCallbackFile().writeTo(processingEnv.getFiler());
         } catch (IOException e) {
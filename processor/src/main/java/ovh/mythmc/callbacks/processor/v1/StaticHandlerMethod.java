@@ -0,0 +1,21 @@
+package ovh.mythmc.callbacks.processor.v1;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import com.palantir.javapoet.ClassName;
+
+/**
+ * A static method declared as a handler through {@code @StaticHandler}.
+ */
+record StaticHandlerMethod(ExecutableElement method, String key, int priority) {
+
+    ClassName owner() {
+        return ClassName.get((TypeElement) method.getEnclosingElement());
+    }
+
+    String methodName() {
+        return method.getSimpleName().toString();
+    }
+
+}
@@ -1,13 +1,18 @@
 package ovh.mythmc.callbacks.processor.v1;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.tools.Diagnostic;
@@ -131,7 +136,9 @@ final class CallbackAnnotationProcessorTest {
 
         String generatedSource = Files.readString(generatedCallback);
         assertTrue(generatedSource.contains("void trigger(String username, int extra);"), generatedSource);
-        assertTrue(generatedSource.contains("listener.trigger(callback.getUsername(), callback.getExtra())"), generatedSource);
+        assertTrue(generatedSource.contains("final String username = callback.getUsername();"), generatedSource);
+        assertTrue(generatedSource.contains("final int extra = callback.getExtra();"), generatedSource);
+        assertTrue(generatedSource.contains("listener.trigger(username, extra)"), generatedSource);
     }
 
     @Test
@@ -154,7 +161,9 @@ final class CallbackAnnotationProcessorTest {
 
         String generatedSource = Files.readString(generatedCallback);
         assertTrue(generatedSource.contains("void trigger(String username, int level);"), generatedSource);
-        assertTrue(generatedSource.contains("listener.trigger(callback.username(), callback.level())"), generatedSource);
+        assertTrue(generatedSource.contains("final String username = callback.username();"), generatedSource);
+        assertTrue(generatedSource.contains("final int level = callback.level();"), generatedSource);
+        assertTrue(generatedSource.contains("listener.trigger(username, level)"), generatedSource);
     }
 
     @Test
@@ -234,10 +243,1572 @@ final class CallbackAnnotationProcessorTest {
 
         String generatedSource = Files.readString(generatedCallback);
         assertTrue(generatedSource.contains("void trigger(int id, boolean admin);"), generatedSource);
-        assertTrue(generatedSource.contains("listener.trigger(callback.id, callback.admin)"), generatedSource);
+        assertTrue(generatedSource.contains("final int id = callback.id;"), generatedSource);
+        assertTrue(generatedSource.contains("listener.trigger(id, admin)"), generatedSource);
     }
 
-    private static CompilationResult compile(String qualifiedName, String source) {
+    @Test
+    void dispatchesThroughRegistrationSnapshots() throws IOException {
+        var result = compile(
+                "sample.Snapshot",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.key.IdentifierKey;
+
+                @Callback
+                final class Snapshot {
+                    public String value;
+
+                    public Snapshot(String value) {
+                        this.value = value;
+                    }
+
+                    static String run() {
+                        var callback = SnapshotCallback.INSTANCE;
+                        callback.registerHandler(IdentifierKey.of("test", "first"), snapshot -> snapshot.value += "a");
+                        callback.registerHandler("test:second", snapshot -> snapshot.value += "b");
+
+                        var before = new Snapshot("");
+                        callback.invoke(before);
+
+                        callback.unregisterHandlers(IdentifierKey.of("test", "first"));
+                        var after = new Snapshot("");
+                        callback.invoke(after);
+
+                        return before.value.length() + ":" + after.value;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+
+        String generatedSource = Files.readString(result.generatedSources().resolve("sample/SnapshotCallback.java"));
+        assertTrue(generatedSource.contains("private volatile SnapshotCallbackHandler[] handlers"), generatedSource);
+        assertFalse(generatedSource.contains("callbackHandlers.values())"), generatedSource);
+
+        assertEquals("2:b", run(result, "sample.Snapshot"));
+    }
+
+    @Test
+    void dispatchesListenersThroughConfiguredExecutor() {
+        var result = compile(
+                "sample.Dispatch",
+                """
+                package sample;
+
+                import java.util.concurrent.atomic.AtomicInteger;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+
+                @Callback
+                record Dispatch(String value) {
+                    static String run() {
+                        var callback = DispatchCallback.INSTANCE;
+                        var received = new StringBuilder();
+                        callback.registerListener("test:first", value -> received.append(value));
+                        callback.registerListener("test:second", value -> received.append(value));
+
+                        callback.setListenerExecutor(ListenerExecutors.inline());
+                        callback.invoke(new Dispatch("a"));
+
+                        var tasks = new AtomicInteger();
+                        callback.setListenerExecutor(task -> {
+                            tasks.incrementAndGet();
+                            task.run();
+                        });
+                        callback.setBatchListeners(true);
+                        callback.invoke(new Dispatch("b"));
+
+                        return received + ":" + tasks.get();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("aabb:1", run(result, "sample.Dispatch"));
+    }
+
+    @Test
+    void runsHandlersByPriorityThenRegistrationOrder() {
+        var result = compile(
+                "sample.Ordered",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.key.IdentifierKey;
+
+                @Callback(defaultPriority = 5)
+                final class Ordered<T> {
+                    public final T value;
+                    public String trace = "";
+
+                    public Ordered(T value) {
+                        this.value = value;
+                    }
+
+                    static String run() {
+                        var callback = OrderedCallback.INSTANCE;
+                        callback.registerHandler(IdentifierKey.of("test", "log"), ordered -> ordered.trace += "log,", -10, String.class);
+                        callback.registerHandler("test:default", ordered -> ordered.trace += "default,", String.class);
+                        callback.registerHandler("test:other", ordered -> ordered.trace += "other,", String.class);
+                        callback.registerHandler(IdentifierKey.of("test", "anticheat"), ordered -> ordered.trace += "anticheat,", 100, String.class);
+
+                        var ordered = new Ordered<String>("value");
+                        callback.invoke(ordered);
+                        return ordered.trace;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("anticheat,default,other,log,", run(result, "sample.Ordered"));
+    }
+
+    @Test
+    void stopsDispatchOnceCallbackIsCancelled() {
+        var result = compile(
+                "sample.Chat",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.annotations.v1.CallbackField;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+
+                @Callback
+                @CallbackField(field = "message", getter = "getMessage()")
+                @CallbackField(field = "cancelled", getter = "isCancelled()")
+                final class Chat {
+                    private final String message;
+                    private boolean cancelled;
+
+                    public Chat(String message) {
+                        this.message = message;
+                    }
+
+                    public String getMessage() {
+                        return message;
+                    }
+
+                    public boolean isCancelled() {
+                        return cancelled;
+                    }
+
+                    public void setCancelled(boolean cancelled) {
+                        this.cancelled = cancelled;
+                    }
+
+                    static String run() {
+                        var callback = ChatCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        callback.setListenerExecutor(ListenerExecutors.inline());
+                        callback.registerHandler("test:filter", chat -> chat.setCancelled(chat.getMessage().isEmpty()), 10);
+                        callback.registerHandler("test:log", chat -> trace.append("handled ").append(chat.getMessage()).append(','));
+                        callback.registerListener("test:listener", message -> trace.append("heard ").append(message).append(','));
+
+                        callback.invoke(new Chat(""), chat -> trace.append("result ").append(chat.isCancelled()).append(','));
+                        callback.invoke(new Chat("hi"), chat -> trace.append("result ").append(chat.isCancelled()).append(','));
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("result true,handled hi,heard hi,result false,", run(result, "sample.Chat"));
+    }
+
+    @Test
+    void rejectsMissingDeclaredCancelField() {
+        var result = compile(
+                "sample.MissingCancel",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(cancelField = "stopped")
+                final class MissingCancel {
+                    public MissingCancel() {}
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Cancel field 'stopped' does not exist or is not a boolean"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void skipsDefaultCancelFieldThatCannotBeRead() {
+        var result = compile(
+                "sample.Hidden",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                final class Hidden {
+                    public final String value;
+                    private boolean cancelled = true;
+
+                    public Hidden(String value) {
+                        this.value = value;
+                    }
+
+                    static String run() {
+                        var trace = new StringBuilder();
+                        HiddenCallback.INSTANCE.registerHandler("test:handler", hidden -> trace.append("handled:").append(hidden.value));
+                        HiddenCallback.INSTANCE.invoke(new Hidden("a"));
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("handled:a", run(result, "sample.Hidden"));
+    }
+
+    @Test
+    void rejectsDeclaredCancelFieldThatCannotBeRead() {
+        var result = compile(
+                "sample.PrivateCancel",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(cancelField = "stopped")
+                final class PrivateCancel {
+                    private boolean stopped;
+
+                    public PrivateCancel() {}
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Cancel field 'stopped' is not accessible from the generated callback"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void reportsSubscribersAndSkipsDispatchWhenEmpty() {
+        var result = compile(
+                "sample.Idle",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                record Idle(int value) {
+                    static String run() {
+                        var callback = IdleCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        trace.append(callback.hasSubscribers()).append(',');
+                        callback.invoke(new Idle(1), idle -> trace.append("result ").append(idle.value()).append(','));
+
+                        callback.registerListener("test:listener", value -> {});
+                        trace.append(callback.hasHandlers()).append(',').append(callback.hasListeners()).append(',').append(callback.hasSubscribers()).append(',');
+
+                        callback.unregisterListeners("test:listener");
+                        trace.append(callback.hasSubscribers());
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("false,result 1,false,true,true,false", run(result, "sample.Idle"));
+    }
+
+    @Test
+    void readsListenerArgumentsOncePerInvocation() {
+        var result = compile(
+                "sample.Counted",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.annotations.v1.CallbackField;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+
+                @Callback
+                @CallbackField(field = "callback", getter = "getCallback()")
+                final class Counted {
+                    static int reads;
+
+                    private final String callback;
+
+                    public Counted(String callback) {
+                        this.callback = callback;
+                    }
+
+                    public String getCallback() {
+                        reads++;
+                        return callback;
+                    }
+
+                    static String run() {
+                        var callback = CountedCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        callback.setListenerExecutor(ListenerExecutors.inline());
+                        for (int i = 0; i < 3; i++) {
+                            callback.registerListener("test:" + i, value -> trace.append(value));
+                        }
+
+                        callback.invoke(new Counted("x"));
+                        return trace + ":" + reads;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("xxx:1", run(result, "sample.Counted"));
+    }
+
+    @Test
+    void registersGeneratedCallbacksInRegistry() {
+        var result = compile(
+                "sample.Registered",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.registry.CallbackRegistry;
+
+                interface Registered {
+                    @Callback
+                    record Move(int x) {}
+
+                    @Callback
+                    record Quit(String reason) {}
+
+                    static String run() {
+                        var move = CallbackRegistry.get(Move.class);
+                        RegisteredQuitCallback.INSTANCE.registerHandler("plugin:quit", quit -> {});
+                        RegisteredQuitCallback.INSTANCE.registerListener("plugin:quit", reason -> {});
+                        RegisteredQuitCallback.INSTANCE.registerListener("other:quit", reason -> {});
+                        ((RegisteredMoveCallback) move).registerHandler("plugin:move", m -> {});
+
+                        CallbackRegistry.unregisterGroup("plugin");
+
+                        return (move == RegisteredMoveCallback.INSTANCE) + ","
+                            + move.hasSubscribers() + ","
+                            + CallbackRegistry.get(Quit.class).getListenerKeys() + ","
+                            + CallbackRegistry.get(String.class);
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("true,false,[other:quit],null", run(result, "sample.Registered"));
+    }
+
+    @Test
+    void recordsMetricsForInstrumentedCallbacks() {
+        var result = compile(
+                "sample.Measured",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+                import ovh.mythmc.callbacks.key.IdentifierKey;
+                import ovh.mythmc.callbacks.metrics.CallbackInstrumentation;
+                import ovh.mythmc.callbacks.metrics.InMemoryCallbackMetrics;
+
+                @Callback(instrumented = true)
+                record Measured(String key) {
+                    static String run() {
+                        var callback = MeasuredCallback.INSTANCE;
+                        callback.setListenerExecutor(ListenerExecutors.inline());
+                        callback.registerHandler("plugin:handler", measured -> {});
+                        callback.registerListener("plugin:listener", key -> {
+                            if (key.isEmpty())
+                                throw new IllegalStateException();
+                        });
+
+                        callback.invoke(new Measured("a"));
+                        try {
+                            callback.invoke(new Measured(""));
+                        } catch (IllegalStateException expected) {
+                        }
+
+                        var statistics = ((InMemoryCallbackMetrics) CallbackInstrumentation.getDefaultMetrics()).getStatistics(Measured.class);
+                        var beforeDisabling = statistics.getInvocationCount() + ","
+                            + statistics.getHandlerLatencies().get(IdentifierKey.of("plugin", "handler")).getCount() + ","
+                            + statistics.getListenerTasksInFlight() + ","
+                            + statistics.getListenerFailureCounts();
+
+                        callback.setMetrics(null);
+                        callback.invoke(new Measured("b"));
+                        return beforeDisabling + "," + statistics.getInvocationCount();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("2,2,0,{plugin:listener=1},2", run(result, "sample.Measured"));
+    }
+
+    @Test
+    void recordsListenersDroppedByTheExecutor() {
+        var result = compile(
+                "sample.Dropped",
+                """
+                package sample;
+
+                import java.util.concurrent.RejectedExecutionException;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.DroppableTask;
+                import ovh.mythmc.callbacks.metrics.InMemoryCallbackMetrics;
+
+                @Callback(instrumented = true)
+                record Dropped(String key) {
+                    static String run() {
+                        var callback = DroppedCallback.INSTANCE;
+                        var metrics = new InMemoryCallbackMetrics();
+                        callback.setMetrics(metrics);
+                        callback.registerListener("plugin:first", key -> {});
+                        callback.registerListener("plugin:second", key -> {});
+
+                        callback.setListenerExecutor(task -> ((DroppableTask) task).onDropped());
+                        callback.invoke(new Dropped("a"));
+
+                        callback.setListenerExecutor(task -> {
+                            throw new RejectedExecutionException();
+                        });
+                        try {
+                            callback.invoke(new Dropped("b"));
+                        } catch (RejectedExecutionException expected) {
+                        }
+
+                        var statistics = metrics.getStatistics(Dropped.class);
+                        return statistics.getListenerTasksScheduled() + ","
+                            + statistics.getListenerTasksDropped() + ","
+                            + statistics.getListenerTasksInFlight();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("3,3,0", run(result, "sample.Dropped"));
+    }
+
+    @Test
+    void invokesBatchesHandlerByHandler() {
+        var result = compile(
+                "sample.Batch",
+                """
+                package sample;
+
+                import java.util.List;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+
+                @Callback
+                final class Batch<T> {
+                    public final T value;
+                    public final int id;
+                    public boolean cancelled;
+
+                    public Batch(T value, int id) {
+                        this.value = value;
+                        this.id = id;
+                    }
+
+                    static String run() {
+                        var callback = BatchCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        var tasks = new int[1];
+                        callback.setListenerExecutor(task -> {
+                            tasks[0]++;
+                            task.run();
+                        });
+                        callback.registerHandler("test:first", batch -> {
+                            trace.append("first").append(batch.id).append(',');
+                            batch.cancelled = batch.id == 2;
+                        }, 1, String.class);
+                        callback.registerHandler("test:second", batch -> trace.append("second").append(batch.id).append(','), String.class);
+                        callback.registerListener("test:listener", (value, id) -> trace.append(value.length()).append(id).append(','), String.class);
+
+                        callback.invokeAll(List.of(new Batch<>("a", 1), new Batch<>("bb", 2), new Batch<>("ccc", 3)));
+                        return trace + "tasks=" + tasks[0];
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("first1,first2,first3,second1,second3,11,33,tasks=1", run(result, "sample.Batch"));
+    }
+
+    @Test
+    void isolatesFailuresAccordingToFaultPolicy() {
+        var result = compile(
+                "sample.Faulty",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+                import ovh.mythmc.callbacks.fault.FaultPolicy;
+
+                @Callback
+                record Faulty(String key) {
+                    static String run() {
+                        var callback = FaultyCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        callback.setListenerExecutor(ListenerExecutors.inline());
+                        callback.setFaultPolicy(FaultPolicy.disableAfter(2, (type, key, failure) -> trace.append(key).append('!').append(',')));
+                        callback.registerHandler("test:broken", faulty -> {
+                            throw new IllegalStateException();
+                        }, 1);
+                        callback.registerHandler("test:working", faulty -> trace.append("handled").append(','));
+                        callback.registerListener("test:listener", key -> {
+                            throw new IllegalStateException(key);
+                        });
+
+                        for (int i = 0; i < 3; i++)
+                            callback.invoke(new Faulty("a"));
+
+                        callback.registerHandler("test:broken", faulty -> trace.append("fixed").append(','), 1);
+                        callback.invoke(new Faulty("b"));
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("test:broken!,handled,test:listener!,test:broken!,handled,test:listener!,handled,fixed,handled,", run(result, "sample.Faulty"));
+    }
+
+    @Test
+    void chainsAsyncHandlersInPriorityOrder() {
+        var result = compile(
+                "sample.Lookup",
+                """
+                package sample;
+
+                import java.util.concurrent.CompletableFuture;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+
+                @Callback
+                final class Lookup<T> {
+                    public final T value;
+
+                    public Lookup(T value) {
+                        this.value = value;
+                    }
+
+                    static String run() {
+                        var callback = LookupCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        var pending = new CompletableFuture<Void>();
+                        callback.setListenerExecutor(ListenerExecutors.inline());
+                        callback.registerHandler("test:first", lookup -> trace.append("first,"), 10, String.class);
+                        callback.registerAsyncHandler("test:slow", lookup -> pending.thenRun(() -> trace.append("slow,")), 5, String.class);
+                        callback.registerHandler("test:last", lookup -> trace.append("last,"), String.class);
+                        callback.registerListener("test:listener", value -> trace.append("listener:").append(value).append(','), String.class);
+
+                        var future = callback.invokeAsync(new Lookup<>("a"));
+                        trace.append("done=").append(future.isDone()).append(',');
+                        pending.complete(null);
+                        trace.append("result=").append(future.join().value).append(',');
+
+                        callback.invoke(new Lookup<>("b"));
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("first,done=false,slow,last,listener:a,result=a,first,slow,last,listener:b,", run(result, "sample.Lookup"));
+    }
+
+    @Test
+    void startsAsyncHandlersWithoutWaitingOnSyncInvoke() {
+        var result = compile(
+                "sample.Pending",
+                """
+                package sample;
+
+                import java.util.concurrent.CompletableFuture;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.ListenerExecutors;
+
+                @Callback
+                final class Pending {
+                    public final String value;
+
+                    public Pending(String value) {
+                        this.value = value;
+                    }
+
+                    static String run() throws InterruptedException {
+                        var callback = PendingCallback.INSTANCE;
+                        var trace = new StringBuffer();
+                        var pending = new CompletableFuture<Void>();
+                        callback.setListenerExecutor(ListenerExecutors.inline());
+                        callback.registerAsyncHandler("test:pending", event -> pending.thenRun(() -> trace.append("resumed,")), 10);
+                        callback.registerHandler("test:after", event -> trace.append("after,"));
+                        callback.registerListener("test:listener", value -> trace.append("listener:").append(value).append(','));
+
+                        var invoker = new Thread(() -> callback.invoke(new Pending("a")));
+                        invoker.start();
+                        invoker.join(10_000);
+                        trace.append("returned=").append(!invoker.isAlive()).append(',');
+
+                        pending.complete(null);
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("after,listener:a,returned=true,resumed,", run(result, "sample.Pending"));
+    }
+
+    @Test
+    void callsStaticHandlersDirectlyUntilOthersAreRegistered() throws IOException {
+        var result = compile(
+                "sample.Core",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.annotations.v1.StaticHandler;
+
+                @Callback
+                final class Core {
+                    public final StringBuilder trace;
+                    public boolean cancelled;
+
+                    public Core(StringBuilder trace) {
+                        this.trace = trace;
+                    }
+
+                    static final class Handlers {
+                        @StaticHandler(value = Core.class, key = "core:first", priority = 10)
+                        static void first(Core core) {
+                            core.trace.append("first,");
+                        }
+
+                        @StaticHandler(value = Core.class, key = "core:second")
+                        static void second(Core core) {
+                            core.trace.append("second,");
+                            core.cancelled = core.trace.length() > 40;
+                        }
+                    }
+
+                    static String run() {
+                        var callback = CoreCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        callback.invoke(new Core(trace));
+
+                        callback.registerHandler("test:middle", core -> trace.append("middle,"), 5);
+                        callback.invoke(new Core(trace));
+
+                        callback.unregisterHandlers("test:middle");
+                        callback.invoke(new Core(trace));
+                        callback.invoke(new Core(trace));
+                        return trace + String.valueOf(callback.getHandlerKeys().size());
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+
+        String generatedSource = Files.readString(result.generatedSources().resolve("sample/CoreCallback.java"));
+        assertTrue(generatedSource.contains("Core.Handlers.first(callback);"), generatedSource);
+
+        assertEquals("first,second,first,middle,second,first,second,first,second,2", run(result, "sample.Core"));
+    }
+
+    @Test
+    void rejectsStaticHandlerWithWrongParameter() {
+        var result = compile(
+                "sample.Wrong",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.annotations.v1.StaticHandler;
+
+                @Callback
+                final class Wrong {
+                    public Wrong() {}
+
+                    @StaticHandler(value = Wrong.class, key = "test:wrong")
+                    static void handle(String value) {}
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Static handler 'handle' must take Wrong as its only parameter"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void rejectsStaticHandlerOutsideCallbackType() {
+        var result = compile(
+                "sample.Outside",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.annotations.v1.StaticHandler;
+
+                @Callback
+                final class Outside {
+                    public Outside() {}
+                }
+
+                final class OutsideHandlers {
+                    @StaticHandler(value = Outside.class, key = "test:outside")
+                    static void handle(Outside outside) {}
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Static handler 'handle' must be declared inside Outside"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void unregistersThroughRegistrationHandles() {
+        var result = compile(
+                "sample.Scoped",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.registry.RegistrationScope;
+
+                @Callback
+                record Scoped(String value) {
+                    static String run() {
+                        var callback = ScopedCallback.INSTANCE;
+                        var single = callback.registerHandler("test:single", scoped -> {});
+                        single.close();
+                        single.close();
+
+                        var replaced = callback.registerHandler("test:replaced", scoped -> {});
+                        callback.registerHandler("test:replaced", scoped -> {});
+                        replaced.close();
+
+                        try (var scope = new RegistrationScope()) {
+                            scope.add(callback.registerListener("test:listener", value -> {}));
+                            scope.add(callback.registerAsyncHandler("test:async", scoped -> null));
+                        }
+
+                        return callback.getHandlerKeys() + "," + callback.getListenerKeys() + "," + single.isClosed();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("[test:replaced],[],true", run(result, "sample.Scoped"));
+    }
+
+    @Test
+    void acceptsStringKeysWithoutNamespace() {
+        var result = compile(
+                "sample.Plain",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                record Plain(String value) {
+                    static String run() {
+                        var callback = PlainCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        callback.registerHandler("plain", plain -> trace.append(plain.value()));
+                        callback.registerListener("plain", value -> {});
+
+                        callback.invoke(new Plain("a"));
+                        var keys = callback.getHandlerKeys() + "," + callback.getListenerKeys();
+                        callback.unregisterHandlers("plain");
+                        callback.unregisterListeners("plain");
+                        callback.invoke(new Plain("b"));
+
+                        return trace + "," + keys + "," + callback.hasHandlers() + "," + callback.hasListeners();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("a,[plain],[plain],false,false", run(result, "sample.Plain"));
+    }
+
+    @Test
+    void registersConcurrentlyFromManyThreads() throws IOException {
+        var result = compile(
+                "sample.Startup",
+                """
+                package sample;
+
+                import java.util.ArrayList;
+                import java.util.concurrent.CountDownLatch;
+                import java.util.concurrent.atomic.AtomicInteger;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                record Startup(AtomicInteger counter) {
+                    static String run() throws InterruptedException {
+                        var callback = StartupCallback.INSTANCE;
+                        var start = new CountDownLatch(1);
+                        var threads = new ArrayList<Thread>();
+                        for (int t = 0; t < 8; t++) {
+                            final int thread = t;
+                            var worker = new Thread(() -> {
+                                try {
+                                    start.await();
+                                } catch (InterruptedException e) {
+                                    throw new IllegalStateException(e);
+                                }
+
+                                for (int i = 0; i < 250; i++) {
+                                    callback.registerHandler("thread" + thread + ":" + i, startup -> startup.counter().incrementAndGet(), i % 7);
+                                    callback.invoke(new Startup(new AtomicInteger()));
+                                }
+                            });
+                            worker.start();
+                            threads.add(worker);
+                        }
+
+                        start.countDown();
+                        for (Thread thread : threads)
+                            thread.join();
+
+                        var counter = new AtomicInteger();
+                        callback.invoke(new Startup(counter));
+
+                        // Locking on the public instance must not block registrations
+                        final boolean blocked;
+                        synchronized (callback) {
+                            var registering = new Thread(() -> callback.registerHandler("held:handler", startup -> {}));
+                            registering.start();
+                            registering.join(10_000);
+                            blocked = registering.isAlive();
+                        }
+
+                        return callback.getHandlerKeys().size() + "," + counter.get() + "," + blocked;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+
+        String generatedSource = Files.readString(result.generatedSources().resolve("sample/StartupCallback.java"));
+        assertTrue(generatedSource.contains("synchronized (registrationLock)"), generatedSource);
+        assertFalse(generatedSource.contains("public synchronized"), generatedSource);
+
+        assertEquals("2001,2000,false", run(result, "sample.Startup"));
+    }
+
+    @Test
+    void matchesFilteredAndIndexedListenersBeforeScheduling() {
+        var result = compile(
+                "sample.Move",
+                """
+                package sample;
+
+                import java.util.List;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(listenerIndex = "playerId")
+                final class Move {
+                    public final int playerId;
+                    public final String world;
+                    public boolean cancelled;
+
+                    public Move(int playerId, String world) {
+                        this.playerId = playerId;
+                        this.world = world;
+                    }
+
+                    static String run() {
+                        var callback = MoveCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        var tasks = new int[1];
+                        callback.setListenerExecutor(task -> {
+                            tasks[0]++;
+                            task.run();
+                        });
+                        callback.registerListener("test:all", (playerId, world) -> trace.append("all").append(playerId).append(','));
+                        callback.registerListener("test:nether", (playerId, world) -> trace.append("nether").append(playerId).append(','), move -> move.world.equals("nether"));
+                        callback.registerIndexedListener("test:first", 1, (playerId, world) -> trace.append("first,"));
+                        callback.registerIndexedListener("test:second", 2, (playerId, world) -> trace.append("second,"));
+
+                        callback.invoke(new Move(1, "overworld"));
+                        callback.invoke(new Move(2, "nether"));
+
+                        callback.registerHandler("test:cancel", move -> move.cancelled = move.playerId == 3);
+                        callback.invokeAll(List.of(new Move(3, "nether"), new Move(1, "nether")));
+                        return trace + "tasks=" + tasks[0];
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("all1,first,all2,second,nether2,first,nether1,all1,tasks=8", run(result, "sample.Move"));
+    }
+
+    @Test
+    void matchesEachFilterOnceBeyondSixtyFourFilteredListeners() {
+        var result = compile(
+                "sample.Tick",
+                """
+                package sample;
+
+                import java.util.TreeSet;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                final class Tick {
+                    public final int value;
+
+                    public Tick(int value) {
+                        this.value = value;
+                    }
+
+                    static String run() {
+                        var callback = TickCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        var matched = new TreeSet<Integer>();
+                        var tests = new int[1];
+                        callback.setListenerExecutor(Runnable::run);
+                        callback.registerListener("test:all", value -> matched.add(-1));
+                        for (int i = 0; i < 70; i++) {
+                            final int id = i;
+                            callback.registerListener("test:filtered" + i, value -> matched.add(id), tick -> {
+                                tests[0]++;
+                                return id % 33 == tick.value;
+                            });
+                        }
+
+                        callback.invoke(new Tick(0));
+                        trace.append(matched).append('|');
+                        matched.clear();
+                        callback.invoke(new Tick(32));
+                        return trace.append(matched) + "tests=" + tests[0];
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("[-1, 0, 33, 66]|[-1, 32, 65]tests=140", run(result, "sample.Tick"));
+    }
+
+    @Test
+    void looksUpPrimitiveListenerIndexWithoutBoxing() {
+        var result = compile(
+                "sample.Velocity",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(listenerIndex = "speed")
+                record Velocity(double speed, long tick) {
+                    static String run() {
+                        var callback = VelocityCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        callback.setListenerExecutor(Runnable::run);
+                        callback.registerIndexedListener("test:slow", 0.5, (speed, tick) -> trace.append("slow").append(tick).append(','));
+                        var fast = callback.registerIndexedListener("test:fast", 1e9, (speed, tick) -> trace.append("fast").append(tick).append(','));
+                        callback.registerIndexedListener("test:negative", -0.0, (speed, tick) -> trace.append("negative").append(tick).append(','));
+
+                        callback.invoke(new Velocity(1e9, 1L));
+                        callback.invoke(new Velocity(0.5, 2L));
+                        callback.invoke(new Velocity(0.0, 3L));
+                        callback.invoke(new Velocity(-0.0, 4L));
+
+                        fast.close();
+                        callback.invoke(new Velocity(1e9, 5L));
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("fast1,slow2,negative4,", run(result, "sample.Velocity"));
+    }
+
+    @Test
+    void coalescesInvocationsByKeyUntilFlushed() {
+        var result = compile(
+                "sample.Score",
+                """
+                package sample;
+
+                import java.time.Duration;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(coalesceKey = "player")
+                record Score(String player, int points) {
+                    static String run() {
+                        var callback = ScoreCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        callback.setListenerExecutor(Runnable::run);
+                        callback.registerHandler("test:handler", score -> trace.append("handle,"));
+                        callback.registerListener("test:listener", (player, points) -> trace.append(player).append(points).append(','));
+
+                        callback.invokeCoalesced(new Score("direct", 0));
+
+                        callback.setCoalescing(Duration.ZERO);
+                        callback.invokeCoalesced(new Score("alex", 1));
+                        callback.invokeCoalesced(new Score("sam", 1));
+                        callback.invokeCoalesced(new Score("alex", 2));
+                        trace.append("tick,");
+                        callback.flushCoalesced();
+
+                        callback.setCoalescing(Duration.ZERO, (previous, latest) -> new Score(latest.player(), previous.points() + latest.points()));
+                        callback.invokeCoalesced(new Score("alex", 3));
+                        callback.invokeCoalesced(new Score("alex", 4));
+                        callback.setCoalescing(null);
+                        callback.invokeCoalesced(new Score("sam", 5));
+                        return trace.toString();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("handle,direct0,tick,handle,alex2,handle,sam1,handle,alex7,handle,sam5,", run(result, "sample.Score"));
+    }
+
+    @Test
+    void rejectsUnknownCoalesceKey() {
+        var result = compile(
+                "sample.Uncoalesced",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(coalesceKey = "missing")
+                record Uncoalesced(String value) {
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Coalesce key 'missing' is not a listener parameter"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void dispatchesListenersThroughRingBuffer() {
+        var result = compile(
+                "sample.Tick",
+                """
+                package sample;
+
+                import java.util.List;
+                import java.util.concurrent.CountDownLatch;
+                import java.util.concurrent.TimeUnit;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.WaitStrategy;
+
+                @Callback
+                record Tick(long tick, String listeners) {
+                    static String run() throws InterruptedException {
+                        var callback = TickCallback.INSTANCE;
+                        var trace = new StringBuffer();
+                        var done = new CountDownLatch(6);
+                        var ringBuffer = callback.enableListenerRingBuffer(2, WaitStrategy.BLOCKING);
+                        callback.registerListener("test:listener", (tick, listeners) -> {
+                            trace.append(Thread.currentThread().getName().startsWith("callbacks-ring-")).append(tick).append(listeners).append(',');
+                            done.countDown();
+                        });
+
+                        for (long i = 0; i < 4; i++)
+                            callback.invoke(new Tick(i, "a"));
+
+                        callback.invokeAll(List.of(new Tick(4, "b"), new Tick(5, "b")));
+                        done.await(5, TimeUnit.SECONDS);
+                        callback.disableListenerRingBuffer();
+                        return trace + "capacity=" + ringBuffer.getCapacity();
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("true0a,true1a,true2a,true3a,true4b,true5b,capacity=2", run(result, "sample.Tick"));
+    }
+
+    @Test
+    void keepsDispatchingRingBufferListenersAfterFailure() {
+        var result = compile(
+                "sample.Pulse",
+                """
+                package sample;
+
+                import java.util.concurrent.CountDownLatch;
+                import java.util.concurrent.TimeUnit;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+                import ovh.mythmc.callbacks.dispatch.WaitStrategy;
+
+                @Callback
+                record Pulse(int value) {
+                    static String run() throws InterruptedException {
+                        var callback = PulseCallback.INSTANCE;
+                        var failures = new CountDownLatch(3);
+                        var done = new CountDownLatch(3);
+                        var previousHandler = Thread.getDefaultUncaughtExceptionHandler();
+                        Thread.setDefaultUncaughtExceptionHandler((thread, t) -> failures.countDown());
+                        try {
+                            callback.enableListenerRingBuffer(4, WaitStrategy.BLOCKING);
+                            callback.registerListener("test:failing", value -> {
+                                throw new IllegalStateException("listener failed");
+                            });
+                            callback.registerListener("test:counting", value -> done.countDown());
+
+                            for (int i = 0; i < 3; i++)
+                                callback.invoke(new Pulse(i));
+
+                            var completed = done.await(5, TimeUnit.SECONDS);
+                            var failed = failures.await(5, TimeUnit.SECONDS);
+                            callback.disableListenerRingBuffer();
+                            return "completed=" + completed + ",failed=" + failed;
+                        } finally {
+                            Thread.setDefaultUncaughtExceptionHandler(previousHandler);
+                        }
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("completed=true,failed=true", run(result, "sample.Pulse"));
+    }
+
+    @Test
+    void reusesReleasedPooledCallbacks() {
+        var result = compile(
+                "sample.Packet",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(pooled = true)
+                final class Packet {
+                    int id;
+                    String callback;
+                    boolean cancelled;
+
+                    Packet(int id, String callback) {
+                        this.id = id;
+                        this.callback = callback;
+                    }
+
+                    static String run() {
+                        var instance = PacketCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        instance.setListenerExecutor(Runnable::run);
+                        instance.registerHandler("test:cancel", packet -> packet.cancelled = packet.id == 1);
+                        instance.registerListener("test:listener", (id, callback) -> trace.append(id).append(callback).append(','));
+
+                        var first = instance.acquire(1, "a");
+                        instance.invoke(first);
+                        trace.append(first.cancelled).append(',');
+                        instance.release(first);
+                        instance.release(first);
+
+                        var second = instance.acquire(2, "b");
+                        instance.invoke(second);
+                        var third = instance.acquire(3, "c");
+                        return trace + "reused=" + (first == second) + ",fresh=" + (third != second) + ",cancelled=" + second.cancelled;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("true,2b,reused=true,fresh=true,cancelled=false", run(result, "sample.Packet"));
+    }
+
+    @Test
+    void rejectsPooledCallbackWithFinalFields() {
+        var result = compile(
+                "sample.Frozen",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(pooled = true)
+                final class Frozen {
+                    final int id;
+
+                    Frozen(int id) {
+                        this.id = id;
+                    }
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Pooled callback Frozen needs non-final, accessible fields named id"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void dispatchesToSupertypeSubscribersWhenPolymorphic() {
+        var result = compile(
+                "sample.Damage",
+                """
+                package sample;
+
+                import java.util.List;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                class Damage {
+                    public final double amount;
+                    public boolean cancelled;
+
+                    public Damage(double amount) {
+                        this.amount = amount;
+                    }
+
+                    static String run() {
+                        var trace = new StringBuilder();
+                        DamageCallback.INSTANCE.setListenerExecutor(Runnable::run);
+                        EntityDamageCallback.INSTANCE.setListenerExecutor(Runnable::run);
+                        PlayerDamageCallback.INSTANCE.setListenerExecutor(Runnable::run);
+
+                        PlayerDamageCallback.INSTANCE.registerHandler("test:player", damage -> trace.append("player,"));
+                        EntityDamageCallback.INSTANCE.registerHandler("test:entity", damage -> trace.append("entity,"));
+                        var base = DamageCallback.INSTANCE.registerHandler("test:damage", damage -> trace.append("damage,"));
+                        DamageCallback.INSTANCE.registerListener("test:listener", amount -> trace.append("listener").append(amount).append(','));
+
+                        PlayerDamageCallback.INSTANCE.invoke(new PlayerDamage(1, "zombie", "alex"));
+                        trace.append('|');
+                        EntityDamageCallback.INSTANCE.invoke(new EntityDamage(2, "zombie"));
+                        trace.append('|');
+                        DamageCallback.INSTANCE.invoke(new Damage(3));
+                        trace.append('|');
+
+                        base.close();
+                        PlayerDamageCallback.INSTANCE.registerHandler("test:cancel", damage -> damage.cancelled = true, -1);
+                        PlayerDamageCallback.INSTANCE.invokeAll(List.of(new PlayerDamage(4, "zombie", "sam")));
+                        return trace.toString();
+                    }
+                }
+
+                @Callback(polymorphic = true)
+                class EntityDamage extends Damage {
+                    public final String entity;
+
+                    public EntityDamage(double amount, String entity) {
+                        super(amount);
+                        this.entity = entity;
+                    }
+                }
+
+                @Callback(polymorphic = true)
+                final class PlayerDamage extends EntityDamage {
+                    public final String player;
+
+                    public PlayerDamage(double amount, String entity, String player) {
+                        super(amount, entity);
+                        this.player = player;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("player,entity,damage,listener1.0,|entity,damage,listener2.0,|damage,listener3.0,|player,entity,", run(result, "sample.Damage"));
+    }
+
+    @Test
+    void mergesInheritedHandlersByPriority() {
+        var result = compile(
+                "sample.Move",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                class Move {
+                    public boolean cancelled;
+
+                    static String run() {
+                        var trace = new StringBuilder();
+                        MoveCallback.INSTANCE.registerHandler("test:high", move -> trace.append("high,"), 10);
+                        MoveCallback.INSTANCE.registerHandler("test:low", move -> trace.append("low,"), -10);
+                        PlayerMoveCallback.INSTANCE.registerHandler("test:own", move -> trace.append("own,"));
+                        MoveCallback.INSTANCE.registerHandler("test:tie", move -> trace.append("tie,"));
+
+                        PlayerMoveCallback.INSTANCE.invoke(new PlayerMove());
+                        trace.append('|');
+                        MoveCallback.INSTANCE.invoke(new Move());
+                        trace.append('|');
+
+                        PlayerMoveCallback.INSTANCE.registerHandler("test:cancel", move -> move.cancelled = true, -5);
+                        PlayerMoveCallback.INSTANCE.invoke(new PlayerMove());
+                        return trace.toString();
+                    }
+                }
+
+                @Callback(polymorphic = true)
+                final class PlayerMove extends Move {
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("high,own,tie,low,|high,tie,low,|high,own,tie,", run(result, "sample.Move"));
+    }
+
+    @Test
+    void chainsInheritedAsyncHandlersAndReleasesSubtypes() {
+        var result = compile(
+                "sample.Query",
+                """
+                package sample;
+
+                import java.lang.ref.WeakReference;
+                import java.util.concurrent.CompletableFuture;
+                import java.util.concurrent.atomic.AtomicInteger;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                class Query {
+                    public final String value;
+
+                    public Query(String value) {
+                        this.value = value;
+                    }
+
+                    static String run() throws InterruptedException {
+                        var trace = new StringBuilder();
+                        var pending = new CompletableFuture<Void>();
+                        QueryCallback.INSTANCE.setListenerExecutor(Runnable::run);
+                        NamedQueryCallback.INSTANCE.setListenerExecutor(Runnable::run);
+
+                        QueryCallback.INSTANCE.registerAsyncHandler("test:lookup", query -> pending.thenRun(() -> trace.append("lookup,")));
+                        NamedQueryCallback.INSTANCE.registerHandler("test:named", query -> trace.append("named,"));
+
+                        var future = NamedQueryCallback.INSTANCE.invokeAsync(new NamedQuery("a", "alex"));
+                        trace.append("done=").append(future.isDone()).append(',');
+                        pending.complete(null);
+                        trace.append("result=").append(future.join().value).append(',');
+
+                        var rebuilds = new AtomicInteger();
+                        Runnable rebuild = rebuilds::incrementAndGet;
+                        var reference = new WeakReference<>(rebuild);
+                        QueryCallback.INSTANCE.addSubtypeDispatch(rebuild);
+                        QueryCallback.INSTANCE.registerHandler("test:first", query -> {});
+                        rebuild = null;
+
+                        for (int i = 0; i < 50 && reference.get() != null; i++) {
+                            System.gc();
+                            Thread.sleep(10);
+                        }
+
+                        QueryCallback.INSTANCE.registerHandler("test:second", query -> {});
+                        trace.append("released=").append(reference.get() == null).append(",rebuilds=").append(rebuilds.get());
+                        return trace.toString();
+                    }
+                }
+
+                @Callback(polymorphic = true)
+                final class NamedQuery extends Query {
+                    public final String name;
+
+                    public NamedQuery(String value, String name) {
+                        super(value);
+                        this.name = name;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("named,done=false,lookup,result=a,released=true,rebuilds=1", run(result, "sample.Query"));
+    }
+
+    @Test
+    void rejectsPolymorphicCallbackWithoutSupertype() {
+        var result = compile(
+                "sample.Lonely",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(polymorphic = true)
+                record Lonely(String value) {
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Polymorphic callback Lonely does not extend a @Callback class"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void compilesParameterizedParametersWithoutUncheckedWarnings() {
+        var result = compile(
+                "sample.Names",
+                """
+                package sample;
+
+                import java.util.List;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                record Names(List<String> names, String owner) {
+                }
+                """,
+                "-Xlint:all,-processing");
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals(List.of(), getWarnings(result));
+    }
+
+    @Test
+    void compilesGenericCallbacksWithoutWarnings() {
+        var result = compile(
+                "sample.Box",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback
+                record Box<T>(String name, T value) {
+                    static void use() {
+                        BoxCallback.INSTANCE.registerListener("test:listener", (name, value) -> {}, box -> box.value() != null, String.class);
+                    }
+                }
+                """,
+                "-Xlint:all,-processing");
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals(List.of(), getWarnings(result));
+    }
+
+    @Test
+    void rejectsUnknownListenerIndex() {
+        var result = compile(
+                "sample.Unindexed",
+                """
+                package sample;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(listenerIndex = "missing")
+                record Unindexed(String value) {
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Listener index 'missing' is not a listener parameter"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    @Test
+    void recordsAndReplaysJournaledInvocations() {
+        var result = compile(
+                "sample.Trade",
+                """
+                package sample;
+
+                import java.nio.file.Files;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(journaled = true)
+                record Trade(long id, Integer quantity, String buffer, Side side, boolean urgent) {
+                    enum Side { BUY, SELL }
+
+                    static String run() throws Exception {
+                        var instance = TradeCallback.INSTANCE;
+                        var trace = new StringBuilder();
+                        instance.setListenerExecutor(Runnable::run);
+                        instance.registerListener("test:listener", (id, quantity, buffer, side, urgent) ->
+                            trace.append(id).append(quantity).append(buffer).append(side).append(urgent).append(','));
+
+                        var directory = Files.createTempDirectory("journal");
+                        var journal = instance.startJournal(directory);
+                        instance.invoke(new Trade(1, 5, "a", Side.BUY, true));
+                        instance.invokeAll(new Trade[] { new Trade(2, null, null, null, false) });
+                        instance.stopJournal();
+                        instance.invoke(new Trade(3, 1, "c", Side.SELL, false));
+
+                        trace.append("replay,");
+                        long replayed = instance.replayJournal(directory);
+                        return trace + "recorded=" + journal.getRecordCount() + ",replayed=" + replayed;
+                    }
+                }
+                """);
+
+        assertTrue(result.success(), formatDiagnostics(result.diagnostics()));
+        assertEquals("15aBUYtrue,2nullnullnullfalse,31cSELLfalse,replay,15aBUYtrue,2nullnullnullfalse,recorded=2,replayed=2", run(result, "sample.Trade"));
+    }
+
+    @Test
+    void rejectsJournaledCallbackWithUnsupportedArguments() {
+        var result = compile(
+                "sample.Snapshot",
+                """
+                package sample;
+
+                import java.util.List;
+
+                import ovh.mythmc.callbacks.annotations.v1.Callback;
+
+                @Callback(journaled = true)
+                record Snapshot(String name, List<String> entries) {
+                }
+                """);
+
+        assertFalse(result.success(), "compilation unexpectedly succeeded");
+        assertTrue(
+                formatDiagnostics(result.diagnostics()).contains("Journaled callback Snapshot has constructor arguments that cannot be recorded: entries"),
+                formatDiagnostics(result.diagnostics()));
+    }
+
+    private static Object run(CompilationResult result, String className) {
+        try (var classLoader = new URLClassLoader(new URL[] { result.classes().toUri().toURL() }, CallbackAnnotationProcessorTest.class.getClassLoader())) {
+            var method = classLoader.loadClass(className).getDeclaredMethod("run");
+            method.setAccessible(true);
+            return method.invoke(null);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("generated code failed", e.getCause());
+        } catch (ReflectiveOperationException | IOException e) {
+            throw new IllegalStateException("failed to run generated code", e);
+        }
+    }
+
+    private static CompilationResult compile(String qualifiedName, String source, String... extraOptions) {
         try {
             JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
             assertNotNull(compiler, "No system Java compiler available");
@@ -253,9 +1824,10 @@ final class CallbackAnnotationProcessorTest {
             fileManager.setLocation(StandardLocation.CLASS_OUTPUT, List.of(classesDir.toFile()));
             fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, List.of(generatedSourcesDir.toFile()));
 
-            List<String> options = List.of(
+            List<String> options = new ArrayList<>(List.of(
                     "-classpath", System.getProperty("java.class.path"),
-                    "-proc:full");
+                    "-proc:full"));
+            options.addAll(List.of(extraOptions));
 
             JavaFileObject sourceFile = new InMemorySourceFile(qualifiedName, source);
             var compilationTask = compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile));
@@ -264,12 +1836,19 @@ final class CallbackAnnotationProcessorTest {
             boolean success = compilationTask.call();
             fileManager.close();
 
-            return new CompilationResult(success, diagnostics.getDiagnostics(), generatedSourcesDir);
+            return new CompilationResult(success, diagnostics.getDiagnostics(), generatedSourcesDir, classesDir);
         } catch (IOException e) {
             throw new IllegalStateException("failed to run in-memory compilation", e);
         }
     }
 
+    private static List<String> getWarnings(CompilationResult result) {
+        return result.diagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.WARNING || diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .toList();
+    }
+
     private static String formatDiagnostics(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
         var builder = new StringBuilder();
         for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
@@ -285,7 +1864,8 @@ final class CallbackAnnotationProcessorTest {
     private record CompilationResult(
             boolean success,
             List<Diagnostic<? extends JavaFileObject>> diagnostics,
-            Path generatedSources) {}
+            Path generatedSources,
+            Path classes) {}
 
     private static final class InMemorySourceFile extends SimpleJavaFileObject {
         private final String sourceCode;
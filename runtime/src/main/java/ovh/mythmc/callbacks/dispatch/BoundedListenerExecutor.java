@@ -0,0 +1,176 @@
+package ovh.mythmc.callbacks.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Executor that runs listener tasks on a fixed number of worker threads fed by a bounded queue.
+ * <p>
+ * When the queue is full, new tasks are handled according to its {@link OverflowPolicy}, so a slow
+ * listener degrades its own callback instead of piling up unbounded work. Discarded tasks that
+ * implement {@link DroppableTask} are notified.
+ */
+public final class BoundedListenerExecutor implements Executor, AutoCloseable {
+
+    private static final AtomicInteger EXECUTOR_COUNT = new AtomicInteger();
+
+    // How often a producer blocked by BLOCK checks whether the executor has been closed
+    private static final long BLOCK_POLL_MILLIS = 50;
+
+    private final BlockingQueue<Runnable> queue;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final LongAdder executed = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder ranInline = new LongAdder();
+
+    private volatile boolean closed;
+
+    public BoundedListenerExecutor(int capacity, @NotNull OverflowPolicy overflowPolicy, int workerThreads) {
+        if (workerThreads < 1)
+            throw new IllegalArgumentException("workerThreads must be at least 1");
+
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+
+        final int executorId = EXECUTOR_COUNT.incrementAndGet();
+        for (int i = 0; i < workerThreads; i++) {
+            final Thread worker = new Thread(this::work, "callbacks-listener-" + executorId + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public void execute(@NotNull Runnable task) {
+        if (closed)
+            throw new RejectedExecutionException("Executor has been closed");
+
+        if (queue.offer(task)) {
+            rejectIfClosed(task);
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    do {
+                        if (closed)
+                            throw new RejectedExecutionException("Executor has been closed");
+                    } while (!queue.offer(task, BLOCK_POLL_MILLIS, TimeUnit.MILLISECONDS));
+
+                    rejectIfClosed(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(task);
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(task)) {
+                    final Runnable oldest = queue.poll();
+                    if (oldest != null)
+                        drop(oldest);
+                }
+
+                rejectIfClosed(task);
+            }
+            case DROP_NEWEST -> drop(task);
+            case RUN_INLINE -> {
+                ranInline.increment();
+                task.run();
+            }
+        }
+    }
+
+    public @NotNull OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Returns the number of tasks currently waiting in the queue.
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of tasks that ran on the invoking thread because the queue was full.
+     */
+    public long getInlineCount() {
+        return ranInline.sum();
+    }
+
+    /**
+     * Stops the worker threads. Tasks still in the queue are discarded and counted as dropped, while
+     * tasks queued by a producer racing with this call are rejected.
+     *
+     * @see DroppableTask
+     */
+    @Override
+    public void close() {
+        closed = true;
+        workers.forEach(Thread::interrupt);
+
+        final List<Runnable> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(this::drop);
+    }
+
+    private void drop(Runnable task) {
+        dropped.increment();
+        if (task instanceof DroppableTask droppable)
+            droppable.onDropped();
+    }
+
+    // A task queued while close() was running may have missed its drain, in which case no worker
+    // would ever run it. If close() drained it after all, it has been counted as dropped instead
+    private void rejectIfClosed(Runnable task) {
+        if (closed && queue.remove(task))
+            throw new RejectedExecutionException("Executor has been closed");
+    }
+
+    private void work() {
+        while (!closed) {
+            final Runnable task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+            } finally {
+                executed.increment();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package ovh.mythmc.callbacks.dispatch;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Merges values offered within a window so that only one of them per key reaches the sink.
+ * <p>
+ * Values sharing a key are combined with the merge function (the latest value wins by default) and
+ * delivered in the order their key was first offered. With a positive window, a shared daemon thread
+ * hands the flush over to the flush executor once the window that started with the first of them has
+ * elapsed, so a slow sink never delays the windows of other coalescers. Failures of the sink are left
+ * to that executor, like those of any other task it runs. With {@link Duration#ZERO}, values are only
+ * delivered when {@link #flush()} is called, which lets callers flush them once per tick on their own
+ * thread.
+ */
+public final class Coalescer<T> implements AutoCloseable {
+
+    private final Function<? super T, ?> keyFunction;
+
+    private final BinaryOperator<T> merge;
+
+    private final Consumer<? super T> sink;
+
+    private final Executor flushExecutor;
+
+    private final long windowNanos;
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private LinkedHashMap<Object, T> pending = new LinkedHashMap<>();
+
+    private boolean scheduled;
+
+    private boolean closed;
+
+    /**
+     * Creates a coalescer that flushes elapsed windows on the common {@link java.util.concurrent.ForkJoinPool}.
+     */
+    public Coalescer(@NotNull Function<? super T, ?> keyFunction, @Nullable BinaryOperator<T> merge, @NotNull Duration window, @NotNull Consumer<? super T> sink) {
+        this(keyFunction, merge, window, ListenerExecutors.commonPool(), sink);
+    }
+
+    /**
+     * @param flushExecutor runs the flushes of elapsed windows. An executor that runs tasks on the calling
+     *                      thread flushes them on the shared scheduling thread instead, which stalls
+     *                      every other coalescer while the sink runs
+     */
+    public Coalescer(@NotNull Function<? super T, ?> keyFunction, @Nullable BinaryOperator<T> merge, @NotNull Duration window, @NotNull Executor flushExecutor, @NotNull Consumer<? super T> sink) {
+        if (window.isNegative())
+            throw new IllegalArgumentException("window cannot be negative");
+
+        this.keyFunction = Objects.requireNonNull(keyFunction, "keyFunction");
+        this.merge = merge == null ? (previous, latest) -> latest : merge;
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.flushExecutor = Objects.requireNonNull(flushExecutor, "flushExecutor");
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Adds {@code value} to the current window, merging it with the pending value of the same key.
+     * Once the coalescer is closed, values are passed to the sink straight away.
+     */
+    public void offer(@NotNull T value) {
+        Objects.requireNonNull(value, "value");
+
+        final boolean accepted;
+        boolean schedule = false;
+        synchronized (this) {
+            accepted = !closed;
+            if (accepted) {
+                final int size = pending.size();
+                pending.merge(keyFunction.apply(value), value, merge);
+                if (pending.size() == size)
+                    coalesced.increment();
+
+                if (windowNanos > 0 && !scheduled) {
+                    scheduled = true;
+                    schedule = true;
+                }
+            }
+        }
+
+        if (!accepted) {
+            sink.accept(value);
+        } else if (schedule) {
+            Scheduler.INSTANCE.schedule(this::scheduleFlush, windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Passes every pending value to the sink and starts a new window. If the sink throws, the
+     * remaining values are still delivered and the first failure is rethrown afterwards.
+     */
+    public void flush() {
+        final LinkedHashMap<Object, T> values;
+        synchronized (this) {
+            scheduled = false;
+            if (pending.isEmpty())
+                return;
+
+            values = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        RuntimeException failure = null;
+        for (T value : values.values()) {
+            try {
+                sink.accept(value);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    private void scheduleFlush() {
+        try {
+            flushExecutor.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // The values stay pending until the next window or an explicit flush
+            synchronized (this) {
+                scheduled = false;
+            }
+
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns how many offered values have been merged into a pending one instead of being delivered.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Flushes the pending values. Values offered afterwards are no longer coalesced.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+
+        flush();
+    }
+
+    private static final class Scheduler {
+
+        private static final ScheduledExecutorService INSTANCE = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+                final Thread thread = new Thread(task, "callbacks-coalescer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+
+    }
+
+}
@@ -0,0 +1,15 @@
+package ovh.mythmc.callbacks.dispatch;
+
+/**
+ * Task that wants to know when an executor discards it without running it, such as a
+ * {@link BoundedListenerExecutor} whose queue overflows or that is closed with the task still queued.
+ * Executors that do not know about this interface simply run it.
+ */
+public interface DroppableTask extends Runnable {
+
+    /**
+     * Called instead of {@link #run()} when the task is discarded. It must not throw.
+     */
+    void onDropped();
+
+}
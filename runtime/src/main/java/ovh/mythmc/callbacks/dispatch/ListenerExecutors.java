@@ -0,0 +1,97 @@
+package ovh.mythmc.callbacks.dispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Executors used by generated callbacks to dispatch their listeners.
+ * <p>
+ * Every generated callback uses {@link #getDefault()} unless a specific executor has been
+ * set through its {@code setListenerExecutor} method.
+ */
+public final class ListenerExecutors {
+
+    private static final Executor INLINE = Runnable::run;
+
+    private static volatile Executor defaultExecutor = ForkJoinPool.commonPool();
+
+    private static volatile Executor virtualThreads;
+
+    private ListenerExecutors() {
+    }
+
+    /**
+     * Runs listeners on the thread that invoked the callback, before {@code invoke} returns.
+     */
+    public static @NotNull Executor inline() {
+        return INLINE;
+    }
+
+    /**
+     * Runs listeners on the common {@link ForkJoinPool}. This is the default executor.
+     */
+    public static @NotNull Executor commonPool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Runs every listener task on a new virtual thread.
+     *
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads
+     */
+    public static @NotNull Executor virtualThreads() {
+        Executor executor = virtualThreads;
+        if (executor == null) {
+            synchronized (ListenerExecutors.class) {
+                executor = virtualThreads;
+                if (executor == null) {
+                    executor = createVirtualThreadExecutor();
+                    virtualThreads = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Runs listeners on a single worker thread fed by a queue of at most {@code capacity} tasks.
+     *
+     * @see BoundedListenerExecutor
+     */
+    public static @NotNull BoundedListenerExecutor bounded(int capacity, @NotNull OverflowPolicy overflowPolicy) {
+        return new BoundedListenerExecutor(capacity, overflowPolicy, 1);
+    }
+
+    public static @NotNull BoundedListenerExecutor bounded(int capacity, @NotNull OverflowPolicy overflowPolicy, int workerThreads) {
+        return new BoundedListenerExecutor(capacity, overflowPolicy, workerThreads);
+    }
+
+    public static @NotNull Executor getDefault() {
+        return defaultExecutor;
+    }
+
+    public static void setDefault(@NotNull Executor executor) {
+        defaultExecutor = Objects.requireNonNull(executor, "executor");
+    }
+
+    private static Executor createVirtualThreadExecutor() {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (Executor) factory.invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM", e);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to create virtual thread executor", t);
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+package ovh.mythmc.callbacks.dispatch;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Dispatches listeners through a ring of preallocated slots consumed by a single worker thread.
+ * <p>
+ * Invoking threads copy the listener parameters of each event into the next free slot and the
+ * worker triggers the listeners from it, so dispatching an event allocates nothing once the buffer
+ * has been created. Events are dispatched in the order they were published. When every slot is in
+ * use, invoking threads wait for the worker according to the buffer's {@link WaitStrategy}, unless
+ * they publish with {@link #tryPublish(Object, Object)}.
+ *
+ * @param <E> type of the events
+ * @param <L> type of the listener group triggered for each event
+ */
+public final class ListenerRingBuffer<E, L> implements AutoCloseable {
+
+    /**
+     * Reusable holder for the values of one event. Generated callbacks implement it with one field
+     * per listener parameter.
+     */
+    public interface Slot<E, L> {
+
+        /**
+         * Copies the listener parameters of {@code event}. Called on the invoking thread.
+         */
+        void load(@NotNull E event, @NotNull L listeners);
+
+        /**
+         * Triggers the listeners with the values loaded last and releases any references to them.
+         * Called on the worker thread.
+         */
+        void dispatch();
+
+    }
+
+    private static final AtomicInteger BUFFER_COUNT = new AtomicInteger();
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final int YIELD_TRIES = 100;
+
+    private static final long SLEEP_NANOS = 50_000;
+
+    private final Slot<E, L>[] slots;
+
+    private final int mask;
+
+    private final WaitStrategy waitStrategy;
+
+    private final Thread worker;
+
+    private final Object producerLock = new Object();
+
+    // Next sequence to be claimed, guarded by producerLock
+    private long nextSequence;
+
+    // Last sequence whose slot has been loaded
+    private final AtomicLong published = new AtomicLong(-1);
+
+    // Last sequence whose slot has been dispatched
+    private final AtomicLong dispatched = new AtomicLong(-1);
+
+    private final AtomicReference<Runnable> terminationAction = new AtomicReference<>();
+
+    private volatile boolean workerParked;
+
+    private volatile boolean closed;
+
+    @SuppressWarnings("unchecked")
+    public ListenerRingBuffer(int capacity, @NotNull WaitStrategy waitStrategy, @NotNull Supplier<? extends Slot<E, L>> slotFactory) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two");
+
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++)
+            slots[i] = Objects.requireNonNull(slotFactory.get(), "slot");
+
+        this.worker = new Thread(this::runWorker, "callbacks-ring-" + BUFFER_COUNT.incrementAndGet());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Loads {@code event} into the next free slot and hands it over to the worker thread.
+     *
+     * @throws RejectedExecutionException if the buffer has been closed
+     */
+    public void publish(@NotNull E event, @NotNull L listeners) {
+        synchronized (producerLock) {
+            final long sequence = nextSequence;
+            final long wrapPoint = sequence - slots.length;
+            int tries = 0;
+            while (dispatched.get() < wrapPoint) {
+                if (closed)
+                    throw new RejectedExecutionException("Ring buffer has been closed");
+
+                tries = idle(tries, false);
+            }
+
+            if (closed)
+                throw new RejectedExecutionException("Ring buffer has been closed");
+
+            load(sequence, event, listeners);
+        }
+
+        signalWorker();
+    }
+
+    /**
+     * Loads {@code event} into the next free slot if there is one, without waiting for the worker
+     * thread.
+     *
+     * @return {@code false} if every slot is in use or the buffer has been closed
+     */
+    public boolean tryPublish(@NotNull E event, @NotNull L listeners) {
+        synchronized (producerLock) {
+            final long sequence = nextSequence;
+            if (closed || dispatched.get() < sequence - slots.length)
+                return false;
+
+            load(sequence, event, listeners);
+        }
+
+        signalWorker();
+        return true;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public @NotNull WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Returns the number of events published but not dispatched yet.
+     */
+    public int getPendingCount() {
+        return (int) (published.get() - dispatched.get());
+    }
+
+    public long getDispatchedCount() {
+        return dispatched.get() + 1;
+    }
+
+    /**
+     * Stops accepting events. Every event whose {@code publish} returned normally, or whose
+     * {@code tryPublish} returned {@code true}, is still dispatched before the worker thread exits.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Closes the buffer like {@link #close()} and runs {@code onTermination} on the worker thread once
+     * it has dispatched the remaining events, or on the calling thread if the worker has already exited.
+     */
+    public void close(@NotNull Runnable onTermination) {
+        terminationAction.set(Objects.requireNonNull(onTermination, "onTermination"));
+        close();
+
+        // The worker takes the action before it exits, so only one of both threads runs it
+        if (!worker.isAlive())
+            runTerminationAction();
+    }
+
+    /**
+     * Waits for the worker thread to dispatch the remaining events and exit after {@link #close()}.
+     *
+     * @return {@code true} if the worker exited within {@code timeout}
+     */
+    public boolean awaitTermination(@NotNull Duration timeout) throws InterruptedException {
+        worker.join(Math.max(1, timeout.toMillis()));
+        return !worker.isAlive();
+    }
+
+    // Called while holding producerLock
+    private void load(long sequence, E event, L listeners) {
+        slots[(int) sequence & mask].load(event, listeners);
+        nextSequence = sequence + 1;
+        published.set(sequence);
+    }
+
+    private void signalWorker() {
+        if (workerParked)
+            LockSupport.unpark(worker);
+    }
+
+    private void runWorker() {
+        try {
+            work();
+        } finally {
+            runTerminationAction();
+        }
+    }
+
+    private void runTerminationAction() {
+        final Runnable action = terminationAction.getAndSet(null);
+        if (action != null)
+            action.run();
+    }
+
+    private void work() {
+        long next = 0;
+        int tries = 0;
+        while (true) {
+            final long available = published.get();
+            if (available < next) {
+                if (closed) {
+                    // Producers check closed while holding the lock, so once it is released every
+                    // event that was accepted has been published and later ones are rejected
+                    synchronized (producerLock) {
+                        if (published.get() < next)
+                            return;
+                    }
+
+                    continue;
+                }
+
+                tries = idle(tries, true);
+                continue;
+            }
+
+            tries = 0;
+            for (; next <= available; next++) {
+                try {
+                    slots[(int) next & mask].dispatch();
+                } catch (Throwable t) {
+                    worker.getUncaughtExceptionHandler().uncaughtException(worker, t);
+                } finally {
+                    dispatched.set(next);
+                }
+            }
+        }
+    }
+
+    private int idle(int tries, boolean consumer) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELDING -> {
+                if (tries < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            case SLEEPING -> {
+                if (tries < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(this, SLEEP_NANOS);
+                }
+            }
+            case BLOCKING -> {
+                if (!consumer) {
+                    LockSupport.parkNanos(this, SLEEP_NANOS);
+                } else {
+                    // Checked again after announcing the park, so that a publish in between is never missed
+                    workerParked = true;
+                    if (published.get() < dispatched.get() + 1 && !closed)
+                        LockSupport.park(this);
+
+                    workerParked = false;
+                }
+            }
+        }
+
+        return Math.min(tries + 1, SPIN_TRIES + YIELD_TRIES);
+    }
+
+}
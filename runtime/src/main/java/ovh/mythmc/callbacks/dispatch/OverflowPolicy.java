@@ -0,0 +1,29 @@
+package ovh.mythmc.callbacks.dispatch;
+
+/**
+ * What a {@link BoundedListenerExecutor} does with a listener task when its queue is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Blocks the invoking thread until there is room in the queue. If the executor is closed in the
+     * meantime, the task is rejected with a {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    BLOCK,
+
+    /**
+     * Discards the oldest queued task to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discards the new task.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Runs the new task on the invoking thread.
+     */
+    RUN_INLINE
+
+}
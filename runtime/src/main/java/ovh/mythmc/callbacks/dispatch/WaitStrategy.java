@@ -0,0 +1,30 @@
+package ovh.mythmc.callbacks.dispatch;
+
+/**
+ * How the threads of a {@link ListenerRingBuffer} wait, either for new events (its consumer) or
+ * for a free slot (threads invoking the callback while the buffer is full).
+ */
+public enum WaitStrategy {
+
+    /**
+     * Spins on the CPU. Lowest latency, but keeps a core busy even when there are no events.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Spins for a short while, then yields the CPU to other threads between checks.
+     */
+    YIELDING,
+
+    /**
+     * Spins, yields and then sleeps for short periods between checks.
+     */
+    SLEEPING,
+
+    /**
+     * Parks the consumer until an event is published. Uses no CPU while idle, at the cost of
+     * waking the consumer up for the first event after a quiet period.
+     */
+    BLOCKING
+
+}
@@ -0,0 +1,23 @@
+package ovh.mythmc.callbacks.fault;
+
+import org.jetbrains.annotations.NotNull;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+/**
+ * Receives the failures caught by a {@link FaultPolicy}.
+ */
+@FunctionalInterface
+public interface ErrorSink {
+
+    void accept(@NotNull Class<?> callbackType, @NotNull IdentifierKey key, @NotNull Throwable failure);
+
+    /**
+     * Logs failures through {@link System.Logger} under the {@code ovh.mythmc.callbacks} logger.
+     */
+    static @NotNull ErrorSink logging() {
+        final System.Logger logger = System.getLogger("ovh.mythmc.callbacks");
+        return (callbackType, key, failure) -> logger.log(System.Logger.Level.WARNING, "'" + key + "' failed while handling " + callbackType.getName(), failure);
+    }
+
+}
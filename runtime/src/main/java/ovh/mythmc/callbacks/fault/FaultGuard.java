@@ -0,0 +1,68 @@
+package ovh.mythmc.callbacks.fault;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+/**
+ * Applies a {@link FaultPolicy} to a single registered handler or listener.
+ */
+public final class FaultGuard {
+
+    private final Class<?> callbackType;
+
+    private final IdentifierKey key;
+
+    private final FaultPolicy policy;
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private volatile boolean disabled;
+
+    FaultGuard(Class<?> callbackType, IdentifierKey key, FaultPolicy policy) {
+        this.callbackType = callbackType;
+        this.key = key;
+        this.policy = policy;
+    }
+
+    /**
+     * Whether the guarded handler or listener has failed too many times and must be skipped.
+     */
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    public int getFailureCount() {
+        return failures.get();
+    }
+
+    public @NotNull IdentifierKey getKey() {
+        return key;
+    }
+
+    /**
+     * Records a failure and reports it to the policy's {@link ErrorSink}. Failures of async handlers
+     * are unwrapped from their {@link CompletionException}.
+     */
+    public void onFailure(@NotNull Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null)
+            failure = failure.getCause();
+
+        final int failureCount = failures.incrementAndGet();
+        final int maxFailures = policy.getMaxFailures();
+        if (maxFailures > 0 && failureCount >= maxFailures)
+            disabled = true;
+
+        try {
+            policy.getErrorSink().accept(callbackType, key, failure);
+        } catch (Throwable t) {
+            t.addSuppressed(failure);
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+        }
+    }
+
+}
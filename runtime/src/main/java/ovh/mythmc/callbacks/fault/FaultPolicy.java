@@ -0,0 +1,110 @@
+package ovh.mythmc.callbacks.fault;
+
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+import ovh.mythmc.callbacks.registry.CallbackInstance;
+import ovh.mythmc.callbacks.registry.CallbackRegistry;
+
+/**
+ * Decides what happens when a handler or listener throws.
+ * <p>
+ * Every generated callback uses {@link #getDefault()} unless a specific policy has been set through
+ * its {@code setFaultPolicy} method. The default policy is {@link #propagate()}.
+ */
+public final class FaultPolicy {
+
+    private static final FaultPolicy PROPAGATE = new FaultPolicy(Mode.PROPAGATE, 0, null);
+
+    private static volatile FaultPolicy defaultPolicy = PROPAGATE;
+
+    private final Mode mode;
+
+    private final int maxFailures;
+
+    private final ErrorSink errorSink;
+
+    private FaultPolicy(Mode mode, int maxFailures, ErrorSink errorSink) {
+        this.mode = mode;
+        this.maxFailures = maxFailures;
+        this.errorSink = errorSink;
+    }
+
+    /**
+     * Lets failures propagate: a failing handler aborts {@code invoke}, and a failing listener is
+     * handled by the executor it runs on.
+     */
+    public static @NotNull FaultPolicy propagate() {
+        return PROPAGATE;
+    }
+
+    public static @NotNull FaultPolicy logAndContinue() {
+        return logAndContinue(ErrorSink.logging());
+    }
+
+    /**
+     * Reports failures to {@code errorSink} and carries on with the next handler or listener.
+     */
+    public static @NotNull FaultPolicy logAndContinue(@NotNull ErrorSink errorSink) {
+        return new FaultPolicy(Mode.CONTINUE, 0, Objects.requireNonNull(errorSink, "errorSink"));
+    }
+
+    public static @NotNull FaultPolicy disableAfter(int maxFailures) {
+        return disableAfter(maxFailures, ErrorSink.logging());
+    }
+
+    /**
+     * Reports failures to {@code errorSink} and stops calling a handler or listener once it has failed
+     * {@code maxFailures} times. It is enabled again when it is registered again.
+     */
+    public static @NotNull FaultPolicy disableAfter(int maxFailures, @NotNull ErrorSink errorSink) {
+        if (maxFailures < 1)
+            throw new IllegalArgumentException("maxFailures must be at least 1");
+
+        return new FaultPolicy(Mode.DISABLE, maxFailures, Objects.requireNonNull(errorSink, "errorSink"));
+    }
+
+    public static @NotNull FaultPolicy getDefault() {
+        return defaultPolicy;
+    }
+
+    /**
+     * Sets the default policy and applies it to every loaded callback that has no policy of its own.
+     */
+    public static void setDefault(@NotNull FaultPolicy policy) {
+        defaultPolicy = Objects.requireNonNull(policy, "policy");
+
+        for (CallbackInstance callback : CallbackRegistry.getCallbacks()) {
+            if (callback.getFaultPolicy() == null)
+                callback.setFaultPolicy(null);
+        }
+    }
+
+    /**
+     * Whether failures propagate, in which case handlers and listeners do not need to be guarded.
+     */
+    public boolean isPropagating() {
+        return mode == Mode.PROPAGATE;
+    }
+
+    public @NotNull FaultGuard newGuard(@NotNull Class<?> callbackType, @NotNull IdentifierKey key) {
+        return new FaultGuard(callbackType, key, this);
+    }
+
+    int getMaxFailures() {
+        return mode == Mode.DISABLE ? maxFailures : 0;
+    }
+
+    ErrorSink getErrorSink() {
+        return errorSink;
+    }
+
+    private enum Mode {
+        PROPAGATE,
+        CONTINUE,
+        DISABLE
+    }
+
+}
@@ -0,0 +1,368 @@
+package ovh.mythmc.callbacks.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+
+import ovh.mythmc.callbacks.dispatch.ListenerRingBuffer;
+import ovh.mythmc.callbacks.dispatch.WaitStrategy;
+
+/**
+ * Append-only record of the invocations of a callback, used by the {@code startJournal} and
+ * {@code replayJournal} methods generated for {@code @Callback(journaled = true)} classes.
+ * <p>
+ * Invoking threads only copy the recorded values into a {@link ListenerRingBuffer}, and never wait
+ * for a free slot: invocations recorded while the buffer is full are counted as dropped. A single
+ * worker thread, parked while there is nothing to write, encodes them into memory-mapped segment
+ * files of {@link #getSegmentSize()} bytes inside the journal's directory. Each segment starts with
+ * a header followed by records made of their length,
+ * the time they were invoked at and the values written by the callback's {@link Entry}. The length
+ * of a record is written last, so a record cut short by a crash is never read back.
+ *
+ * @param <E> type of the recorded callbacks
+ */
+public final class EventJournal<E> implements AutoCloseable {
+
+    /**
+     * Copy of the recorded values of one callback. Generated callbacks implement it with one field
+     * per constructor parameter.
+     */
+    public interface Entry<E> {
+
+        /**
+         * Copies the recorded values of {@code event}. Called on the invoking thread.
+         */
+        void load(@NotNull E event);
+
+        /**
+         * Encodes the values loaded last. Called on the journal's worker thread.
+         */
+        void writeTo(@NotNull ByteBuffer buffer);
+
+        /**
+         * Releases any references to the values loaded last.
+         */
+        void clear();
+
+    }
+
+    /**
+     * Receives the records of a journal when it is replayed.
+     */
+    @FunctionalInterface
+    public interface RecordReader {
+
+        /**
+         * @param timestamp time the record was invoked at, in milliseconds since the epoch
+         * @param buffer    values of the record, positioned at the first one
+         */
+        void read(long timestamp, @NotNull ByteBuffer buffer);
+
+    }
+
+    public static final int DEFAULT_SEGMENT_SIZE = 16 << 20;
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int MAGIC = 0x43424A31;
+
+    private static final int VERSION = 1;
+
+    private static final int SEGMENT_HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final ListenerRingBuffer<E, EventJournal<E>> buffer;
+
+    private final LongAdder recordCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    // Only accessed by the worker thread until the buffer has terminated
+    private int segmentIndex;
+
+    private IOException closeFailure;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    private EventJournal(Path directory, int segmentSize, int capacity, Supplier<? extends Entry<E>> entryFactory) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+        this.segmentIndex = nextSegmentIndex(directory);
+        openSegment();
+
+        this.buffer = new ListenerRingBuffer<>(capacity, WaitStrategy.BLOCKING, () -> new RecordSlot<>(entryFactory.get()));
+    }
+
+    /**
+     * Opens a journal that appends new segments to {@code directory}, creating it if needed.
+     * Segments written earlier are kept and replayed before the new ones.
+     */
+    public static <E> @NotNull EventJournal<E> open(@NotNull Path directory, @NotNull Supplier<? extends Entry<E>> entryFactory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_CAPACITY, entryFactory);
+    }
+
+    /**
+     * @param segmentSize size of each segment file in bytes, which also bounds the size of a record
+     * @param capacity    number of invocations that can be waiting to be written, a power of two
+     */
+    public static <E> @NotNull EventJournal<E> open(@NotNull Path directory, int segmentSize, int capacity, @NotNull Supplier<? extends Entry<E>> entryFactory) throws IOException {
+        Objects.requireNonNull(directory, "directory");
+        Objects.requireNonNull(entryFactory, "entryFactory");
+        if (segmentSize <= SEGMENT_HEADER_SIZE + Integer.BYTES + Long.BYTES)
+            throw new IllegalArgumentException("segmentSize is too small");
+
+        return new EventJournal<>(directory, segmentSize, capacity, entryFactory);
+    }
+
+    /**
+     * Reads every record in {@code directory} in the order it was written.
+     *
+     * @return the number of records read
+     */
+    public static long replay(@NotNull Path directory, @NotNull RecordReader reader) throws IOException {
+        Objects.requireNonNull(reader, "reader");
+
+        long count = 0;
+        for (Path path : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (segment.remaining() < SEGMENT_HEADER_SIZE || segment.getInt() != MAGIC)
+                    throw new IOException("Not a journal segment: " + path);
+
+                final int version = segment.getInt();
+                if (version != VERSION)
+                    throw new IOException("Unsupported journal version " + version + ": " + path);
+
+                while (segment.remaining() >= Integer.BYTES) {
+                    final int length = segment.getInt();
+                    if (length <= 0 || length > segment.remaining())
+                        break;
+
+                    final ByteBuffer record = segment.slice(segment.position(), length);
+                    segment.position(segment.position() + length);
+
+                    reader.read(record.getLong(), record);
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Hands the recorded values of {@code event} over to the worker thread without waiting for it.
+     * Events recorded while every slot is in use or after the journal has been closed are counted as
+     * dropped, so that recording never holds up or fails an invocation.
+     */
+    public void record(@NotNull E event) {
+        if (!buffer.tryPublish(event, this))
+            droppedCount.increment();
+    }
+
+    public @NotNull Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Returns the number of records written to the journal.
+     */
+    public long getRecordCount() {
+        return recordCount.sum();
+    }
+
+    /**
+     * Returns the number of records that were discarded because the buffer was full, they did not fit
+     * in a segment, the next segment could not be created or the journal had been closed.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Stops accepting records, waits for the pending ones to be written and flushes the current
+     * segment to disk. The segment is released by the worker thread once it has written the last
+     * record, so if that takes longer than 30 seconds or the calling thread is interrupted, this
+     * method returns while the worker is still writing, and it closes the segment afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.close(this::releaseSegment);
+        try {
+            if (!buffer.awaitTermination(CLOSE_TIMEOUT))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Written by the worker before it exited, which happens-before awaitTermination returns
+        if (closeFailure != null)
+            throw closeFailure;
+    }
+
+    private void releaseSegment() {
+        if (channel == null)
+            return;
+
+        try {
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            closeFailure = e;
+        } finally {
+            channel = null;
+            segment = null;
+        }
+    }
+
+    private void write(long timestamp, Entry<E> entry) {
+        if (segment == null) {
+            droppedCount.increment();
+            return;
+        }
+
+        final int start = segment.position();
+        try {
+            segment.position(start + Integer.BYTES);
+            segment.putLong(timestamp);
+            entry.writeTo(segment);
+        } catch (BufferOverflowException e) {
+            // The length at start is still zero, so readers stop there and move on to the next segment
+            segment.position(start);
+            if (start == SEGMENT_HEADER_SIZE) {
+                // Later records are written over this one, so nothing it left behind may look like a record
+                for (int i = start; i < segment.limit(); i++)
+                    segment.put(i, (byte) 0);
+
+                droppedCount.increment();
+                return;
+            }
+
+            if (!nextSegment()) {
+                droppedCount.increment();
+                return;
+            }
+
+            write(timestamp, entry);
+            return;
+        }
+
+        segment.putInt(start, segment.position() - start - Integer.BYTES);
+        recordCount.increment();
+    }
+
+    private boolean nextSegment() {
+        try {
+            segment.force();
+            channel.close();
+            openSegment();
+            return true;
+        } catch (IOException e) {
+            channel = null;
+            segment = null;
+            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), new UncheckedIOException(e));
+            return false;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        final Path path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segmentIndex++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+    }
+
+    // Segments may have been deleted or rotated away, so the next index follows the highest one left
+    private static int nextSegmentIndex(Path directory) throws IOException {
+        int next = 0;
+        for (Path path : listSegments(directory)) {
+            final String name = path.getFileName().toString();
+            try {
+                next = Math.max(next, Integer.parseInt(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10) + 1);
+            } catch (NumberFormatException e) {
+                // Not named by a journal, so it cannot collide with the next segment
+            }
+        }
+
+        return next;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory))
+            return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    final String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static final class RecordSlot<E> implements ListenerRingBuffer.Slot<E, EventJournal<E>> {
+
+        private final Entry<E> entry;
+
+        private EventJournal<E> journal;
+
+        private long timestamp;
+
+        private RecordSlot(Entry<E> entry) {
+            this.entry = Objects.requireNonNull(entry, "entry");
+        }
+
+        @Override
+        public void load(@NotNull E event, @NotNull EventJournal<E> journal) {
+            entry.load(event);
+            this.journal = journal;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        @Override
+        public void dispatch() {
+            try {
+                journal.write(timestamp, entry);
+            } finally {
+                entry.clear();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package ovh.mythmc.callbacks.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Encodes the values of journaled callbacks that have no fixed size. Primitive values are written
+ * with the matching {@link ByteBuffer} methods, boxed ones are preceded by a presence byte.
+ */
+public final class JournalCodec {
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Writes {@code value} as its UTF-8 length followed by its bytes, or a length of {@code -1} if
+     * it is {@code null}.
+     */
+    public static void writeString(@NotNull ByteBuffer buffer, @Nullable String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static @Nullable String readString(@NotNull ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0)
+            return null;
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the name of {@code value}, so that reordering constants does not change recorded values.
+     */
+    public static void writeEnum(@NotNull ByteBuffer buffer, @Nullable Enum<?> value) {
+        writeString(buffer, value == null ? null : value.name());
+    }
+
+    public static <T extends Enum<T>> @Nullable T readEnum(@NotNull ByteBuffer buffer, @NotNull Class<T> type) {
+        final String name = readString(buffer);
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    /**
+     * Writes whether the next value is present. Returns {@code true} if it is, in which case the
+     * caller writes it.
+     */
+    public static boolean writePresence(@NotNull ByteBuffer buffer, @Nullable Object value) {
+        buffer.put((byte) (value == null ? 0 : 1));
+        return value != null;
+    }
+
+    public static boolean readPresence(@NotNull ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+}
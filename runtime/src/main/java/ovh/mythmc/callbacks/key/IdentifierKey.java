@@ -0,0 +1,188 @@
+package ovh.mythmc.callbacks.key;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+public final class IdentifierKey implements Comparable<IdentifierKey> {
+
+    static final Comparator<? super IdentifierKey> COMPARATOR = Comparator.comparing(IdentifierKey::identifier).thenComparing(IdentifierKey::group);
+
+    // Interned keys by group, then identifier, so that looking one up allocates nothing. They are held
+    // weakly, so that keys dropped on a plugin reload can be collected once nothing else uses them
+    private static final Map<String, Map<String, InternedKey>> INTERNED = new HashMap<>();
+
+    private static final ReferenceQueue<IdentifierKey> RELEASED = new ReferenceQueue<>();
+
+    private final String group;
+
+    private final String identifier;
+
+    // Keys are used as map keys on every (un)registration, so their string form and hash are computed once
+    private final String string;
+
+    private final int hash;
+
+    private IdentifierKey(String group, String identifier) {
+        this.group = Objects.requireNonNull(group, "group");
+        this.identifier = Objects.requireNonNull(identifier, "identifier");
+        this.string = asString(group, identifier);
+        this.hash = (31 * identifier.hashCode()) + group.hashCode();
+    }
+
+    public String group() { return group; }
+
+    public String identifier() { return identifier; }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) return true;
+        if (!(other instanceof IdentifierKey)) return false;
+        final IdentifierKey that = (IdentifierKey) other;
+        return this.hash == that.hash && this.identifier.equals(that.identifier) && this.group.equals(that.group);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    public @NotNull String asString() {
+        return this.string;
+    }
+
+    // Keys without a group are written without a separator, whichever way they were created
+    private static @NotNull String asString(final @NotNull String group, final @NotNull String identifier) {
+        return group.isEmpty() ? identifier : group + ':' + identifier;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return this.string;
+    }
+
+    /**
+     * Returns the canonical instance of this key. Equal keys intern to the same instance for as long
+     * as that instance is still referenced.
+     */
+    public @NotNull IdentifierKey intern() {
+        synchronized (INTERNED) {
+            final IdentifierKey interned = lookUpInterned(group, identifier);
+            if (interned != null)
+                return interned;
+
+            putInterned(this);
+            return this;
+        }
+    }
+
+    public static IdentifierKey of(String group, String identifier) {
+        return new IdentifierKey(group, identifier);
+    }
+
+    public static IdentifierKey of(String key) {
+        final int separator = key.indexOf(':');
+        if (separator < 0)
+            return null;
+
+        return of(key.substring(0, separator), key.substring(separator + 1));
+    }
+
+    /**
+     * Parses a namespaced key ({@code "group:identifier"}).
+     *
+     * @throws IllegalArgumentException if the key is not namespaced
+     */
+    public static @NotNull IdentifierKey parse(@NotNull String key) {
+        final IdentifierKey identifierKey = of(key);
+        if (identifierKey == null)
+            throw new IllegalArgumentException("Key '" + key + "' is not namespaced (group:identifier)");
+
+        return identifierKey;
+    }
+
+    /**
+     * Parses a key like {@link #of(String)}, but also accepts keys without a group. Those are kept as
+     * they are, with an empty group, which is how the {@code String} overloads of generated callbacks
+     * have always treated them.
+     */
+    public static @NotNull IdentifierKey fromString(@NotNull String key) {
+        final IdentifierKey identifierKey = of(key);
+        return identifierKey == null ? new IdentifierKey("", key) : identifierKey;
+    }
+
+    /**
+     * Returns the canonical key for {@code group} and {@code identifier}, only creating one if no
+     * equal key is interned yet.
+     */
+    public static @NotNull IdentifierKey interned(String group, String identifier) {
+        Objects.requireNonNull(group, "group");
+        Objects.requireNonNull(identifier, "identifier");
+
+        synchronized (INTERNED) {
+            final IdentifierKey interned = lookUpInterned(group, identifier);
+            if (interned != null)
+                return interned;
+
+            final IdentifierKey key = new IdentifierKey(group, identifier);
+            putInterned(key);
+            return key;
+        }
+    }
+
+    // Called while holding the INTERNED lock
+    private static IdentifierKey lookUpInterned(String group, String identifier) {
+        expungeReleased();
+
+        final Map<String, InternedKey> identifiers = INTERNED.get(group);
+        final InternedKey reference = identifiers == null ? null : identifiers.get(identifier);
+        return reference == null ? null : reference.get();
+    }
+
+    // Called while holding the INTERNED lock
+    private static void putInterned(IdentifierKey key) {
+        INTERNED.computeIfAbsent(key.group, group -> new HashMap<>()).put(key.identifier, new InternedKey(key));
+    }
+
+    // Called while holding the INTERNED lock
+    private static void expungeReleased() {
+        InternedKey released;
+        while ((released = (InternedKey) RELEASED.poll()) != null) {
+            final Map<String, InternedKey> identifiers = INTERNED.get(released.group);
+            if (identifiers == null || !identifiers.remove(released.identifier, released))
+                continue;
+
+            if (identifiers.isEmpty())
+                INTERNED.remove(released.group);
+        }
+    }
+
+    public static boolean isValid(String key) {
+        return key.indexOf(':') >= 0;
+    }
+
+    @Override
+    public int compareTo(IdentifierKey that) {
+        return COMPARATOR.compare(this, that);
+    }
+
+    private static final class InternedKey extends WeakReference<IdentifierKey> {
+
+        private final String group;
+
+        private final String identifier;
+
+        private InternedKey(IdentifierKey key) {
+            super(key, RELEASED);
+            this.group = key.group;
+            this.identifier = key.identifier;
+        }
+
+    }
+    
+}
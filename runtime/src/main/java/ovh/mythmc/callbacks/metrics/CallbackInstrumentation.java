@@ -0,0 +1,65 @@
+package ovh.mythmc.callbacks.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import ovh.mythmc.callbacks.registry.CallbackInstance;
+import ovh.mythmc.callbacks.registry.CallbackRegistry;
+
+/**
+ * Turns metrics on and off for every callback at once.
+ * <p>
+ * Callbacks annotated with {@code @Callback(instrumented = true)} record to {@link #getDefaultMetrics()}
+ * from the start. Any other callback can be instrumented individually through its
+ * {@code setMetrics} method, or all together with {@link #enable(CallbackMetrics)}.
+ */
+public final class CallbackInstrumentation {
+
+    private static final CallbackMetrics DEFAULT_METRICS = new InMemoryCallbackMetrics();
+
+    private static volatile CallbackMetrics enabledMetrics;
+
+    private CallbackInstrumentation() {
+    }
+
+    /**
+     * Instruments every loaded callback, and every callback loaded from now on, with {@code metrics}.
+     */
+    public static void enable(@NotNull CallbackMetrics metrics) {
+        enabledMetrics = metrics;
+        for (CallbackInstance callback : CallbackRegistry.getCallbacks()) {
+            callback.setMetrics(metrics);
+        }
+    }
+
+    /**
+     * Removes the metrics of every loaded callback.
+     */
+    public static void disable() {
+        enabledMetrics = null;
+        for (CallbackInstance callback : CallbackRegistry.getCallbacks()) {
+            callback.setMetrics(null);
+        }
+    }
+
+    public static @Nullable CallbackMetrics getEnabledMetrics() {
+        return enabledMetrics;
+    }
+
+    /**
+     * Returns the metrics enabled with {@link #enable(CallbackMetrics)} or, if there are none, a shared
+     * {@link InMemoryCallbackMetrics}.
+     */
+    public static @NotNull CallbackMetrics getDefaultMetrics() {
+        final CallbackMetrics metrics = enabledMetrics;
+        return metrics == null ? DEFAULT_METRICS : metrics;
+    }
+
+    /**
+     * Returns the metrics a callback starts with once it has been loaded.
+     */
+    public static @Nullable CallbackMetrics getInitialMetrics(boolean instrumented) {
+        return instrumented ? getDefaultMetrics() : enabledMetrics;
+    }
+
+}
@@ -0,0 +1,36 @@
+package ovh.mythmc.callbacks.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+/**
+ * Receives dispatch measurements from instrumented callbacks.
+ * <p>
+ * Implementations are called from the invoking thread and from listener threads, so they must be
+ * thread-safe and cheap. A callback without metrics does not measure anything.
+ *
+ * @see CallbackInstrumentation
+ */
+public interface CallbackMetrics {
+
+    void recordInvocation(@NotNull Class<?> callbackType);
+
+    void recordHandler(@NotNull Class<?> callbackType, @NotNull IdentifierKey handler, long nanos);
+
+    void recordListenersScheduled(@NotNull Class<?> callbackType, int listeners);
+
+    /**
+     * Records scheduled listeners that will never run, because the listener executor rejected or dropped
+     * their task.
+     */
+    default void recordListenersDropped(@NotNull Class<?> callbackType, int listeners) {
+    }
+
+    /**
+     * Records a finished listener. {@code failure} is the exception thrown by the listener, if any.
+     */
+    void recordListener(@NotNull Class<?> callbackType, @NotNull IdentifierKey listener, long nanos, @Nullable Throwable failure);
+
+}
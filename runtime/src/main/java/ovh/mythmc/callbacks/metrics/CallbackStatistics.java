@@ -0,0 +1,140 @@
+package ovh.mythmc.callbacks.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import org.jetbrains.annotations.NotNull;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+/**
+ * Measurements collected by {@link InMemoryCallbackMetrics} for a single callback type.
+ */
+public final class CallbackStatistics implements CallbackStatisticsMXBean {
+
+    private final Class<?> callbackType;
+
+    private final LongAdder invocations = new LongAdder();
+
+    private final LongAdder listenersScheduled = new LongAdder();
+
+    private final LongAdder listenersCompleted = new LongAdder();
+
+    private final LongAdder listenersDropped = new LongAdder();
+
+    private final ConcurrentMap<IdentifierKey, LatencyHistogram> handlerLatencies = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<IdentifierKey, LatencyHistogram> listenerLatencies = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<IdentifierKey, LongAdder> listenerFailures = new ConcurrentHashMap<>();
+
+    CallbackStatistics(@NotNull Class<?> callbackType) {
+        this.callbackType = callbackType;
+    }
+
+    void recordInvocation() {
+        invocations.increment();
+    }
+
+    void recordHandler(IdentifierKey handler, long nanos) {
+        handlerLatencies.computeIfAbsent(handler, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    void recordListenersScheduled(int listeners) {
+        listenersScheduled.add(listeners);
+    }
+
+    void recordListenersDropped(int listeners) {
+        listenersDropped.add(listeners);
+    }
+
+    void recordListener(IdentifierKey listener, long nanos, Throwable failure) {
+        listenerLatencies.computeIfAbsent(listener, key -> new LatencyHistogram()).record(nanos);
+        if (failure != null)
+            listenerFailures.computeIfAbsent(listener, key -> new LongAdder()).increment();
+
+        listenersCompleted.increment();
+    }
+
+    public @NotNull Class<?> getType() {
+        return callbackType;
+    }
+
+    public @NotNull Map<IdentifierKey, LatencyHistogram> getHandlerLatencies() {
+        return Map.copyOf(handlerLatencies);
+    }
+
+    public @NotNull Map<IdentifierKey, LatencyHistogram> getListenerLatencies() {
+        return Map.copyOf(listenerLatencies);
+    }
+
+    @Override
+    public String getCallbackType() {
+        return callbackType.getName();
+    }
+
+    @Override
+    public long getInvocationCount() {
+        return invocations.sum();
+    }
+
+    @Override
+    public long getListenerTasksScheduled() {
+        return listenersScheduled.sum();
+    }
+
+    @Override
+    public long getListenerTasksInFlight() {
+        return Math.max(0, listenersScheduled.sum() - listenersCompleted.sum() - listenersDropped.sum());
+    }
+
+    @Override
+    public long getListenerTasksDropped() {
+        return listenersDropped.sum();
+    }
+
+    @Override
+    public long getListenerFailureCount() {
+        return listenerFailures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public Map<String, Long> getHandlerCounts() {
+        return summarize(handlerLatencies, histogram -> histogram.getCount());
+    }
+
+    @Override
+    public Map<String, Double> getHandlerMeanNanos() {
+        final Map<String, Double> summary = new TreeMap<>();
+        handlerLatencies.forEach((key, histogram) -> summary.put(key.asString(), histogram.getMeanNanos()));
+        return summary;
+    }
+
+    @Override
+    public Map<String, Long> getHandlerP99Nanos() {
+        return summarize(handlerLatencies, histogram -> histogram.getPercentileNanos(99));
+    }
+
+    @Override
+    public Map<String, Long> getHandlerMaxNanos() {
+        return summarize(handlerLatencies, LatencyHistogram::getMaxNanos);
+    }
+
+    @Override
+    public Map<String, Long> getListenerFailureCounts() {
+        final Map<String, Long> summary = new TreeMap<>();
+        listenerFailures.forEach((key, failures) -> summary.put(key.asString(), failures.sum()));
+        return summary;
+    }
+
+    private static Map<String, Long> summarize(Map<IdentifierKey, LatencyHistogram> histograms, ToDoubleFunction<LatencyHistogram> value) {
+        final Map<String, Long> summary = new TreeMap<>();
+        histograms.forEach((key, histogram) -> summary.put(key.asString(), (long) value.applyAsDouble(histogram)));
+        return summary;
+    }
+
+}
@@ -0,0 +1,33 @@
+package ovh.mythmc.callbacks.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link CallbackStatistics}. Per-handler values are keyed by the
+ * handler's identifier key.
+ */
+public interface CallbackStatisticsMXBean {
+
+    String getCallbackType();
+
+    long getInvocationCount();
+
+    long getListenerTasksScheduled();
+
+    long getListenerTasksInFlight();
+
+    long getListenerTasksDropped();
+
+    long getListenerFailureCount();
+
+    Map<String, Long> getHandlerCounts();
+
+    Map<String, Double> getHandlerMeanNanos();
+
+    Map<String, Long> getHandlerP99Nanos();
+
+    Map<String, Long> getHandlerMaxNanos();
+
+    Map<String, Long> getListenerFailureCounts();
+
+}
@@ -0,0 +1,95 @@
+package ovh.mythmc.callbacks.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+/**
+ * {@link CallbackMetrics} that keeps counters and latency histograms in memory, one
+ * {@link CallbackStatistics} per callback type.
+ */
+public class InMemoryCallbackMetrics implements CallbackMetrics {
+
+    private final ConcurrentMap<Class<?>, CallbackStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordInvocation(@NotNull Class<?> callbackType) {
+        getStatistics(callbackType).recordInvocation();
+    }
+
+    @Override
+    public void recordHandler(@NotNull Class<?> callbackType, @NotNull IdentifierKey handler, long nanos) {
+        getStatistics(callbackType).recordHandler(handler, nanos);
+    }
+
+    @Override
+    public void recordListenersScheduled(@NotNull Class<?> callbackType, int listeners) {
+        getStatistics(callbackType).recordListenersScheduled(listeners);
+    }
+
+    @Override
+    public void recordListenersDropped(@NotNull Class<?> callbackType, int listeners) {
+        getStatistics(callbackType).recordListenersDropped(listeners);
+    }
+
+    @Override
+    public void recordListener(@NotNull Class<?> callbackType, @NotNull IdentifierKey listener, long nanos, @Nullable Throwable failure) {
+        getStatistics(callbackType).recordListener(listener, nanos, failure);
+    }
+
+    public @NotNull CallbackStatistics getStatistics(@NotNull Class<?> callbackType) {
+        final CallbackStatistics existing = statistics.get(callbackType);
+        if (existing != null)
+            return existing;
+
+        return statistics.computeIfAbsent(callbackType, type -> {
+            final CallbackStatistics created = new CallbackStatistics(type);
+            onStatisticsCreated(created);
+            return created;
+        });
+    }
+
+    public @NotNull Collection<CallbackStatistics> getAllStatistics() {
+        return List.copyOf(statistics.values());
+    }
+
+    /**
+     * Discards the statistics of {@code callbackType}, so that they no longer keep its class loader
+     * alive. Measurements recorded afterwards start from zero.
+     */
+    public void unregister(@NotNull Class<?> callbackType) {
+        final CallbackStatistics removed = statistics.remove(callbackType);
+        if (removed != null)
+            onStatisticsRemoved(removed);
+    }
+
+    /**
+     * Discards the statistics of every callback type defined by {@code classLoader}, such as the
+     * class loader of a plugin that is being unloaded.
+     */
+    public void unregister(@NotNull ClassLoader classLoader) {
+        for (Class<?> callbackType : List.copyOf(statistics.keySet())) {
+            if (callbackType.getClassLoader() == classLoader)
+                unregister(callbackType);
+        }
+    }
+
+    /**
+     * Called once for every callback type, the first time it records a measurement.
+     */
+    protected void onStatisticsCreated(@NotNull CallbackStatistics statistics) {
+    }
+
+    /**
+     * Called when the statistics of a callback type are discarded.
+     */
+    protected void onStatisticsRemoved(@NotNull CallbackStatistics statistics) {
+    }
+
+}
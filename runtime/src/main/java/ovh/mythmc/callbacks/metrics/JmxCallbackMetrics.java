@@ -0,0 +1,74 @@
+package ovh.mythmc.callbacks.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link InMemoryCallbackMetrics} that publishes the statistics of every callback type as an MXBean
+ * named {@code ovh.mythmc.callbacks:type=Callback,name=<callback class>}.
+ * <p>
+ * MXBeans stay registered until their statistics are {@linkplain #unregister(Class) unregistered} or
+ * the metrics are {@linkplain #close() closed}, so unregister the callback types of a plugin before
+ * unloading it.
+ */
+public final class JmxCallbackMetrics extends InMemoryCallbackMetrics implements AutoCloseable {
+
+    public static final String DOMAIN = "ovh.mythmc.callbacks";
+
+    private final MBeanServer server;
+
+    public JmxCallbackMetrics() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public JmxCallbackMetrics(@NotNull MBeanServer server) {
+        this.server = server;
+    }
+
+    @Override
+    protected void onStatisticsCreated(@NotNull CallbackStatistics statistics) {
+        try {
+            final ObjectName name = getObjectName(statistics.getType());
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+
+            server.registerMBean(statistics, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register statistics of " + statistics.getCallbackType(), e);
+        }
+    }
+
+    @Override
+    protected void onStatisticsRemoved(@NotNull CallbackStatistics statistics) {
+        try {
+            final ObjectName name = getObjectName(statistics.getType());
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+        } catch (InstanceNotFoundException e) {
+            // Unregistered concurrently
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister statistics of " + statistics.getCallbackType(), e);
+        }
+    }
+
+    /**
+     * Unregisters the MXBeans of every callback type.
+     */
+    @Override
+    public void close() {
+        for (CallbackStatistics statistics : getAllStatistics()) {
+            unregister(statistics.getType());
+        }
+    }
+
+    public static @NotNull ObjectName getObjectName(@NotNull Class<?> callbackType) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Callback,name=" + ObjectName.quote(callbackType.getName()));
+    }
+
+}
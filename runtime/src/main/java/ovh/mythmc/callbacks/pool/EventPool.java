@@ -0,0 +1,105 @@
+package ovh.mythmc.callbacks.pool;
+
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Per-thread pool of callback objects, used by the {@code acquire} and {@code release} methods
+ * generated for {@code @Callback(pooled = true)} classes.
+ * <p>
+ * Every thread keeps up to {@link #getCapacity()} released objects of its own, so acquiring and
+ * releasing never contend with other threads. Objects released on a different thread than the one
+ * that acquired them simply move to the pool of the releasing thread.
+ * <p>
+ * Pooled objects stay reachable from every thread that released them, and with them the class loader
+ * of their class. Threads that outlive that class loader, such as those of a shared executor, must
+ * call {@link #clear()} before it is unloaded.
+ */
+public final class EventPool<T> {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final int capacity;
+
+    private final ThreadLocal<Stack> stacks;
+
+    public EventPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EventPool(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+
+        this.capacity = capacity;
+        this.stacks = ThreadLocal.withInitial(() -> new Stack(capacity));
+    }
+
+    /**
+     * Takes a released object from the pool of the current thread, or returns {@code null} if
+     * there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T poll() {
+        final Stack stack = stacks.get();
+        if (stack.size == 0)
+            return null;
+
+        final Object value = stack.values[--stack.size];
+        stack.values[stack.size] = null;
+        return (T) value;
+    }
+
+    /**
+     * Returns {@code value} to the pool of the current thread. Does nothing if the pool is full or
+     * already holds {@code value}, so releasing an object twice never hands it out twice.
+     */
+    public void offer(@NotNull T value) {
+        Objects.requireNonNull(value, "value");
+
+        final Stack stack = stacks.get();
+        if (stack.size == stack.values.length)
+            return;
+
+        for (int i = 0; i < stack.size; i++) {
+            if (stack.values[i] == value)
+                return;
+        }
+
+        stack.values[stack.size++] = value;
+    }
+
+    /**
+     * Discards the released objects held for the current thread, along with the pool's entry in its
+     * thread-local map.
+     */
+    public void clear() {
+        stacks.remove();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of released objects held for the current thread.
+     */
+    public int getPooledCount() {
+        return stacks.get().size;
+    }
+
+    private static final class Stack {
+
+        private final Object[] values;
+
+        private int size;
+
+        private Stack(int capacity) {
+            this.values = new Object[capacity];
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package ovh.mythmc.callbacks.registry;
+
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import ovh.mythmc.callbacks.fault.FaultPolicy;
+import ovh.mythmc.callbacks.key.IdentifierKey;
+import ovh.mythmc.callbacks.metrics.CallbackMetrics;
+
+/**
+ * Common view of a generated callback class, used by {@link CallbackRegistry}.
+ */
+public interface CallbackInstance {
+
+    /**
+     * Returns the {@code @Callback} annotated class this callback was generated from.
+     */
+    @NotNull Class<?> getCallbackType();
+
+    @NotNull Set<IdentifierKey> getHandlerKeys();
+
+    @NotNull Set<IdentifierKey> getListenerKeys();
+
+    boolean hasSubscribers();
+
+    @Nullable CallbackMetrics getMetrics();
+
+    /**
+     * Sets the metrics this callback records to, or removes them if {@code metrics} is {@code null}.
+     */
+    void setMetrics(@Nullable CallbackMetrics metrics);
+
+    /**
+     * Returns the fault policy set for this callback, or {@code null} if it uses {@link FaultPolicy#getDefault()}.
+     */
+    @Nullable FaultPolicy getFaultPolicy();
+
+    void setFaultPolicy(@Nullable FaultPolicy faultPolicy);
+
+    /**
+     * Unregisters every handler and listener whose key belongs to {@code group}.
+     */
+    void unregisterGroup(@NotNull String group);
+
+}
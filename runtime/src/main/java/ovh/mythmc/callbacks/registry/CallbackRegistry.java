@@ -0,0 +1,99 @@
+package ovh.mythmc.callbacks.registry;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index of every generated callback that has been loaded.
+ * <p>
+ * Generated callbacks register themselves when their class is initialized. Entries are held
+ * weakly, so the registry never keeps a plugin's class loader alive after it has been unloaded.
+ */
+public final class CallbackRegistry {
+
+    private static final String CALLBACK_SUFFIX = "Callback";
+
+    private static final Map<Class<?>, WeakReference<CallbackInstance>> CALLBACKS = new WeakHashMap<>();
+
+    private CallbackRegistry() {
+    }
+
+    public static void register(@NotNull CallbackInstance callback) {
+        Objects.requireNonNull(callback, "callback");
+
+        synchronized (CALLBACKS) {
+            CALLBACKS.put(callback.getCallbackType(), new WeakReference<>(callback));
+        }
+    }
+
+    /**
+     * Returns the generated callback for {@code callbackType}, loading it if it has not been
+     * initialized yet, or {@code null} if no callback was generated for that type.
+     */
+    public static @Nullable CallbackInstance get(@NotNull Class<?> callbackType) {
+        CallbackInstance callback = getRegistered(callbackType);
+        if (callback != null)
+            return callback;
+
+        // Initializing the generated class registers it
+        try {
+            Class.forName(getGeneratedClassName(callbackType), true, callbackType.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+
+        return getRegistered(callbackType);
+    }
+
+    public static @NotNull Collection<CallbackInstance> getCallbacks() {
+        final List<CallbackInstance> callbacks = new ArrayList<>();
+
+        synchronized (CALLBACKS) {
+            for (WeakReference<CallbackInstance> reference : CALLBACKS.values()) {
+                final CallbackInstance callback = reference.get();
+                if (callback != null)
+                    callbacks.add(callback);
+            }
+        }
+
+        return callbacks;
+    }
+
+    /**
+     * Unregisters every handler and listener belonging to {@code group} from all loaded callbacks.
+     */
+    public static void unregisterGroup(@NotNull String group) {
+        for (CallbackInstance callback : getCallbacks()) {
+            callback.unregisterGroup(group);
+        }
+    }
+
+    private static CallbackInstance getRegistered(Class<?> callbackType) {
+        synchronized (CALLBACKS) {
+            final WeakReference<CallbackInstance> reference = CALLBACKS.get(callbackType);
+            return reference == null ? null : reference.get();
+        }
+    }
+
+    private static String getGeneratedClassName(Class<?> callbackType) {
+        final StringBuilder nestedTypePath = new StringBuilder();
+        for (Class<?> current = callbackType; current != null; current = current.getEnclosingClass()) {
+            nestedTypePath.insert(0, current.getSimpleName());
+        }
+
+        final String packageName = callbackType.getPackageName();
+        if (packageName.isEmpty())
+            return nestedTypePath + CALLBACK_SUFFIX;
+
+        return packageName + '.' + nestedTypePath + CALLBACK_SUFFIX;
+    }
+
+}
@@ -0,0 +1,89 @@
+package ovh.mythmc.callbacks.registry;
+
+import java.lang.ref.Cleaner;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jetbrains.annotations.NotNull;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+/**
+ * Handle of a registered handler or listener, returned by the {@code register} methods of generated
+ * callbacks. Closing it unregisters the handler or listener, unless its key has been registered again
+ * since. Registrations are only closed implicitly when bound to an owner with {@link #bindTo(Object)};
+ * otherwise add them to a {@link RegistrationScope} that is closed along with their owner.
+ */
+public final class Registration implements AutoCloseable {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final IdentifierKey key;
+
+    private final AtomicReference<Runnable> unregisterAction;
+
+    private volatile Cleaner.Cleanable ownerBinding;
+
+    private Registration(IdentifierKey key, Runnable unregisterAction) {
+        this.key = key;
+        this.unregisterAction = new AtomicReference<>(unregisterAction);
+    }
+
+    public static @NotNull Registration of(@NotNull IdentifierKey key, @NotNull Runnable unregisterAction) {
+        return new Registration(Objects.requireNonNull(key, "key"), Objects.requireNonNull(unregisterAction, "unregisterAction"));
+    }
+
+    public @NotNull IdentifierKey getKey() {
+        return key;
+    }
+
+    public boolean isClosed() {
+        return unregisterAction.get() == null;
+    }
+
+    /**
+     * Closes this registration once {@code owner} has been garbage collected, unless it is closed before.
+     * <p>
+     * Only the owner's reachability is tracked: neither this registration nor the callback keep it
+     * alive. The handler or listener, however, is held by the callback, so it must not reference
+     * {@code owner} strongly (capture a {@link java.lang.ref.WeakReference} to it instead), or the
+     * owner never becomes unreachable and the registration is never closed.
+     *
+     * @throws IllegalStateException if this registration is already bound to an owner
+     */
+    public synchronized @NotNull Registration bindTo(@NotNull Object owner) {
+        Objects.requireNonNull(owner, "owner");
+        if (ownerBinding != null)
+            throw new IllegalStateException("Registration " + key.asString() + " is already bound to an owner");
+
+        // The action holds neither the owner nor this registration, only the unregister action
+        if (!isClosed())
+            ownerBinding = CLEANER.register(owner, new Unbind(unregisterAction));
+
+        return this;
+    }
+
+    @Override
+    public void close() {
+        final Runnable action = unregisterAction.getAndSet(null);
+        if (action != null)
+            action.run();
+
+        // Removes the binding from the cleaner, so that closed registrations do not pile up in it
+        final Cleaner.Cleanable binding = ownerBinding;
+        if (binding != null)
+            binding.clean();
+    }
+
+    private record Unbind(AtomicReference<Runnable> unregisterAction) implements Runnable {
+
+        @Override
+        public void run() {
+            final Runnable action = unregisterAction.getAndSet(null);
+            if (action != null)
+                action.run();
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package ovh.mythmc.callbacks.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Groups registrations so that they can be closed together, for example when a plugin is disabled.
+ */
+public final class RegistrationScope implements AutoCloseable {
+
+    private final List<Registration> registrations = new ArrayList<>();
+
+    private boolean closed;
+
+    /**
+     * Adds {@code registration} to this scope, or closes it right away if this scope has already been closed.
+     */
+    public @NotNull Registration add(@NotNull Registration registration) {
+        Objects.requireNonNull(registration, "registration");
+
+        synchronized (registrations) {
+            if (!closed) {
+                registrations.add(registration);
+                return registration;
+            }
+        }
+
+        registration.close();
+        return registration;
+    }
+
+    public boolean isClosed() {
+        synchronized (registrations) {
+            return closed;
+        }
+    }
+
+    /**
+     * Closes every registration in this scope, most recent first.
+     */
+    @Override
+    public void close() {
+        final List<Registration> toClose;
+        synchronized (registrations) {
+            if (closed)
+                return;
+
+            closed = true;
+            toClose = new ArrayList<>(registrations);
+            registrations.clear();
+        }
+
+        for (int i = toClose.size() - 1; i >= 0; i--)
+            toClose.get(i).close();
+    }
+
+}
@@ -0,0 +1,156 @@
+package ovh.mythmc.callbacks.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+final class BoundedListenerExecutorTest {
+
+    @Test
+    void dropsNewestTasksWhenFull() throws InterruptedException {
+        try (var executor = ListenerExecutors.bounded(2, OverflowPolicy.DROP_NEWEST)) {
+            var ran = new CopyOnWriteArrayList<String>();
+            var release = occupyWorker(executor);
+
+            executor.execute(() -> ran.add("a"));
+            executor.execute(() -> ran.add("b"));
+            executor.execute(() -> ran.add("c"));
+
+            assertEquals(2, executor.getQueuedCount());
+            assertEquals(1, executor.getDroppedCount());
+
+            release.countDown();
+            awaitExecuted(executor, 3);
+            assertEquals(List.of("a", "b"), ran);
+        }
+    }
+
+    @Test
+    void dropsOldestTasksWhenFull() throws InterruptedException {
+        try (var executor = ListenerExecutors.bounded(2, OverflowPolicy.DROP_OLDEST)) {
+            var ran = new CopyOnWriteArrayList<String>();
+            var release = occupyWorker(executor);
+
+            executor.execute(() -> ran.add("a"));
+            executor.execute(() -> ran.add("b"));
+            executor.execute(() -> ran.add("c"));
+
+            assertEquals(1, executor.getDroppedCount());
+
+            release.countDown();
+            awaitExecuted(executor, 3);
+            assertEquals(List.of("b", "c"), ran);
+        }
+    }
+
+    @Test
+    void runsTasksInlineWhenFull() throws InterruptedException {
+        try (var executor = ListenerExecutors.bounded(1, OverflowPolicy.RUN_INLINE)) {
+            var threads = new CopyOnWriteArrayList<Thread>();
+            var release = occupyWorker(executor);
+
+            executor.execute(() -> threads.add(Thread.currentThread()));
+            executor.execute(() -> threads.add(Thread.currentThread()));
+
+            assertEquals(List.of(Thread.currentThread()), threads);
+            assertEquals(1, executor.getInlineCount());
+            assertEquals(0, executor.getDroppedCount());
+
+            release.countDown();
+            awaitExecuted(executor, 2);
+        }
+    }
+
+    @Test
+    void rejectsBlockedTasksWhenClosed() throws InterruptedException {
+        var executor = ListenerExecutors.bounded(1, OverflowPolicy.BLOCK);
+        occupyWorker(executor);
+        executor.execute(() -> {});
+
+        var failure = new AtomicReference<Throwable>();
+        var producer = new Thread(() -> {
+            try {
+                executor.execute(() -> {});
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        producer.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (producer.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        executor.close();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(producer.isAlive(), "blocked producer was never woken");
+        assertInstanceOf(RejectedExecutionException.class, failure.get());
+        assertEquals(1, executor.getDroppedCount());
+    }
+
+    @Test
+    void notifiesDroppedTasks() throws InterruptedException {
+        var notified = new CopyOnWriteArrayList<String>();
+        var executor = ListenerExecutors.bounded(1, OverflowPolicy.DROP_OLDEST);
+        occupyWorker(executor);
+
+        executor.execute(new NamedTask("a", notified));
+        executor.execute(new NamedTask("b", notified));
+        assertEquals(List.of("a"), notified);
+
+        executor.close();
+        assertEquals(List.of("a", "b"), notified);
+        assertEquals(2, executor.getDroppedCount());
+    }
+
+    private static CountDownLatch occupyWorker(BoundedListenerExecutor executor) throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS), "worker did not start");
+        return release;
+    }
+
+    private static void awaitExecuted(BoundedListenerExecutor executor, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getExecutedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertEquals(count, executor.getExecutedCount());
+    }
+
+    private record NamedTask(String name, List<String> dropped) implements DroppableTask {
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public void onDropped() {
+            dropped.add(name);
+        }
+
+    }
+
+}
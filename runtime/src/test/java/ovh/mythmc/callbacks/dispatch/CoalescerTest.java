@@ -0,0 +1,99 @@
+package ovh.mythmc.callbacks.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+final class CoalescerTest {
+
+    @Test
+    void keepsLatestValuePerKeyUntilFlushed() {
+        var delivered = new ArrayList<String>();
+        var coalescer = new Coalescer<String>(value -> value.charAt(0), null, Duration.ZERO, delivered::add);
+
+        coalescer.offer("a1");
+        coalescer.offer("b1");
+        coalescer.offer("a2");
+        assertEquals(List.of(), delivered);
+        assertEquals(2, coalescer.getPendingCount());
+        assertEquals(1, coalescer.getCoalescedCount());
+
+        coalescer.flush();
+        assertEquals(List.of("a2", "b1"), delivered);
+
+        coalescer.close();
+        coalescer.offer("c1");
+        assertEquals(List.of("a2", "b1", "c1"), delivered);
+    }
+
+    @Test
+    void mergesWithFunctionAndFlushesAfterWindow() throws InterruptedException {
+        var delivered = new ArrayList<String>();
+        var flushed = new CountDownLatch(1);
+        var coalescer = new Coalescer<String>(value -> value.charAt(0), String::concat, Duration.ofMillis(20), value -> {
+            synchronized (delivered) {
+                delivered.add(value);
+            }
+            flushed.countDown();
+        });
+
+        coalescer.offer("a1");
+        coalescer.offer("a2");
+
+        assertTrue(flushed.await(5, TimeUnit.SECONDS), "window was never flushed");
+        synchronized (delivered) {
+            assertEquals(List.of("a1a2"), delivered);
+        }
+    }
+
+    @Test
+    void flushesOnExecutorAndLeavesFailuresToIt() throws InterruptedException {
+        var flushThread = new AtomicReference<Thread>();
+        var sinkThread = new AtomicReference<Thread>();
+        var failure = new AtomicReference<Throwable>();
+        var failed = new CountDownLatch(1);
+        Executor executor = task -> {
+            var thread = new Thread(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                    failed.countDown();
+                }
+            });
+            flushThread.set(thread);
+            thread.start();
+        };
+
+        var delivered = new ArrayList<String>();
+        var coalescer = new Coalescer<String>(value -> value.charAt(0), null, Duration.ofMillis(20), executor, value -> {
+            synchronized (delivered) {
+                delivered.add(value);
+            }
+            sinkThread.set(Thread.currentThread());
+            if (value.startsWith("a"))
+                throw new IllegalStateException("broken " + value);
+        });
+
+        coalescer.offer("a1");
+        coalescer.offer("b1");
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS), "failure did not reach the executor");
+        assertEquals("broken a1", failure.get().getMessage());
+        assertSame(flushThread.get(), sinkThread.get());
+        synchronized (delivered) {
+            assertEquals(List.of("a1", "b1"), delivered);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package ovh.mythmc.callbacks.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+
+final class ListenerRingBufferTest {
+
+    @Test
+    void dispatchesEventsInOrderAcrossWrapAround() throws InterruptedException {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            var received = new ArrayList<Integer>();
+            var buffer = new ListenerRingBuffer<Integer, IntConsumer>(4, waitStrategy, IntSlot::new);
+
+            for (int i = 0; i < 100; i++)
+                buffer.publish(i, received::add);
+
+            awaitDispatched(buffer, 100);
+            buffer.close();
+
+            assertEquals(100, received.size(), waitStrategy.name());
+            for (int i = 0; i < 100; i++)
+                assertEquals(i, received.get(i), waitStrategy.name());
+        }
+    }
+
+    @Test
+    void rejectsEventsOnceClosed() {
+        var buffer = new ListenerRingBuffer<Integer, IntConsumer>(2, WaitStrategy.BLOCKING, IntSlot::new);
+        buffer.close();
+
+        assertThrows(RejectedExecutionException.class, () -> buffer.publish(1, value -> {}));
+    }
+
+    @Test
+    void dispatchesEventPublishedWhilstClosing() throws InterruptedException {
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var received = new AtomicInteger();
+        var buffer = new ListenerRingBuffer<Integer, IntConsumer>(2, WaitStrategy.BLOCKING, () -> new IntSlot() {
+            @Override
+            public void load(Integer event, IntConsumer listeners) {
+                // Holds the producer between its closed check and the publication of the event
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                super.load(event, listeners);
+            }
+        });
+
+        var producer = new Thread(() -> buffer.publish(1, value -> received.incrementAndGet()));
+        producer.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS), "producer never loaded the event");
+
+        buffer.close();
+        buffer.awaitTermination(Duration.ofMillis(100));
+        release.countDown();
+        producer.join();
+
+        assertTrue(buffer.awaitTermination(Duration.ofSeconds(5)), "worker did not exit");
+        assertEquals(1, received.get());
+    }
+
+    @Test
+    void runsTerminationActionAfterRemainingEvents() throws InterruptedException {
+        var trace = new StringBuffer();
+        var buffer = new ListenerRingBuffer<Integer, IntConsumer>(4, WaitStrategy.BLOCKING, IntSlot::new);
+        for (int i = 0; i < 3; i++)
+            buffer.publish(i, trace::append);
+
+        buffer.close(() -> trace.append("closed"));
+        assertTrue(buffer.awaitTermination(Duration.ofSeconds(5)), "worker did not exit");
+
+        var late = new StringBuffer();
+        buffer.close(() -> late.append("closed"));
+        assertEquals("012closed", trace.toString());
+        assertEquals("closed", late.toString());
+    }
+
+    private static void awaitDispatched(ListenerRingBuffer<?, ?> buffer, long count) throws InterruptedException {
+        final long deadline = System.nanoTime() + 5_000_000_000L;
+        while (buffer.getDispatchedCount() < count && System.nanoTime() < deadline)
+            Thread.sleep(1);
+
+        assertEquals(count, buffer.getDispatchedCount());
+    }
+
+    private static class IntSlot implements ListenerRingBuffer.Slot<Integer, IntConsumer> {
+
+        private int value;
+
+        private IntConsumer listener;
+
+        @Override
+        public void load(Integer event, IntConsumer listeners) {
+            this.value = event;
+            this.listener = listeners;
+        }
+
+        @Override
+        public void dispatch() {
+            final IntConsumer listener = this.listener;
+            this.listener = null;
+            listener.accept(value);
+        }
+
+    }
+
+}
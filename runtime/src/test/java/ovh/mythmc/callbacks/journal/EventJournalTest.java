@@ -0,0 +1,140 @@
+package ovh.mythmc.callbacks.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class EventJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsAcrossSegmentsAndReopens() throws IOException {
+        try (var journal = EventJournal.open(directory, 64, 16, StringEntry::new)) {
+            for (int i = 0; i < 10; i++)
+                journal.record("event-" + i);
+        }
+
+        try (var journal = EventJournal.open(directory, 64, 16, StringEntry::new)) {
+            journal.record("");
+        }
+
+        var expected = new ArrayList<String>();
+        for (int i = 0; i < 10; i++)
+            expected.add("event-" + i);
+        expected.add("");
+
+        assertEquals(expected, replay());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 2, "records were not split across segments");
+        }
+    }
+
+    @Test
+    void appendsAfterHighestRemainingSegment() throws IOException {
+        try (var journal = EventJournal.open(directory, 64, 16, StringEntry::new)) {
+            for (int i = 0; i < 3; i++)
+                journal.record("event-" + i);
+        }
+
+        // Two records fit in a segment, so rotating the first one away leaves only segment 1
+        Files.delete(directory.resolve("segment-00000000.journal"));
+
+        try (var journal = EventJournal.open(directory, 64, 16, StringEntry::new)) {
+            journal.record("event-3");
+        }
+
+        assertEquals(List.of("event-2", "event-3"), replay());
+    }
+
+    @Test
+    void countsRecordsTooLargeForASegment() throws IOException {
+        var journal = EventJournal.open(directory, 64, 8, StringEntry::new);
+        journal.record("x".repeat(100));
+        journal.record("small");
+        journal.close();
+
+        assertEquals(1, journal.getRecordCount());
+        assertEquals(1, journal.getDroppedCount());
+        assertEquals(List.of("small"), replay());
+    }
+
+    @Test
+    void dropsRecordsWhileBufferIsFull() throws IOException, InterruptedException {
+        var writing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var journal = EventJournal.open(directory, 1024, 2, () -> new StringEntry() {
+            @Override
+            public void writeTo(@NotNull ByteBuffer buffer) {
+                if (getValue().equals("slow")) {
+                    writing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                super.writeTo(buffer);
+            }
+        });
+
+        journal.record("slow");
+        assertTrue(writing.await(5, TimeUnit.SECONDS), "worker never started writing");
+        journal.record("queued");
+        journal.record("dropped");
+        assertEquals(1, journal.getDroppedCount());
+
+        release.countDown();
+        journal.close();
+
+        assertEquals(2, journal.getRecordCount());
+        assertEquals(List.of("slow", "queued"), replay());
+    }
+
+    private List<String> replay() throws IOException {
+        var replayed = new ArrayList<String>();
+        EventJournal.replay(directory, (timestamp, buffer) -> replayed.add(JournalCodec.readString(buffer)));
+        return replayed;
+    }
+
+    private static class StringEntry implements EventJournal.Entry<String> {
+
+        private String value;
+
+        @Override
+        public void load(@NotNull String event) {
+            this.value = event;
+        }
+
+        @Override
+        public void writeTo(@NotNull ByteBuffer buffer) {
+            JournalCodec.writeString(buffer, value);
+        }
+
+        @Override
+        public void clear() {
+            this.value = null;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+    }
+
+}
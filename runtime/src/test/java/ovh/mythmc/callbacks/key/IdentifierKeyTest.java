@@ -0,0 +1,83 @@
+package ovh.mythmc.callbacks.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.Test;
+
+final class IdentifierKeyTest {
+
+    @Test
+    void parsesNamespacedKeysAtFirstSeparator() {
+        var key = IdentifierKey.of("group:identifier:extra");
+
+        assertEquals("group", key.group());
+        assertEquals("identifier:extra", key.identifier());
+        assertEquals("group:identifier:extra", key.toString());
+        assertEquals(IdentifierKey.of("group", "identifier:extra"), key);
+        assertEquals(IdentifierKey.of("group", "identifier:extra").hashCode(), key.hashCode());
+    }
+
+    @Test
+    void rejectsKeysWithoutNamespace() {
+        assertNull(IdentifierKey.of("identifier"));
+        assertThrows(IllegalArgumentException.class, () -> IdentifierKey.parse("identifier"));
+    }
+
+    @Test
+    void internsEqualKeysToSameInstance() {
+        var first = IdentifierKey.of("group", "interned");
+        var second = IdentifierKey.of("group", "interned");
+
+        assertNotSame(first, second);
+        assertSame(first.intern(), second.intern());
+        assertSame(first.intern(), IdentifierKey.interned("group", "interned"));
+    }
+
+    @Test
+    void releasesInternedKeysThatAreNoLongerUsed() throws InterruptedException {
+        var reference = new WeakReference<>(IdentifierKey.interned("group", "released"));
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(reference.get());
+    }
+
+    @Test
+    void keepsKeysWithoutNamespaceFromStrings() {
+        var key = IdentifierKey.fromString("identifier");
+
+        assertEquals("", key.group());
+        assertEquals("identifier", key.identifier());
+        assertEquals("identifier", key.toString());
+        assertEquals(key, IdentifierKey.fromString("identifier"));
+        assertEquals(IdentifierKey.of("group", "identifier"), IdentifierKey.fromString("group:identifier"));
+    }
+
+    @Test
+    void writesEqualKeysTheSameWay() {
+        var fromString = IdentifierKey.fromString("identifier");
+        var emptyGroup = IdentifierKey.of(":identifier");
+
+        assertEquals(fromString, emptyGroup);
+        assertEquals(fromString.asString(), emptyGroup.asString());
+        assertEquals(emptyGroup, IdentifierKey.fromString(emptyGroup.asString()));
+    }
+
+    @Test
+    void internsWithoutCreatingKeysThatAlreadyExist() {
+        var key = IdentifierKey.interned("group", "existing");
+
+        assertSame(key, IdentifierKey.interned("group", "existing"));
+        assertSame(key, IdentifierKey.of("group", "existing").intern());
+    }
+
+}
@@ -0,0 +1,76 @@
+package ovh.mythmc.callbacks.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.management.JMException;
+import javax.management.MBeanServerFactory;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Test;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+final class JmxCallbackMetricsTest {
+
+    @Test
+    void publishesStatisticsPerCallbackType() throws JMException {
+        var server = MBeanServerFactory.newMBeanServer();
+        var metrics = new JmxCallbackMetrics(server);
+        var handler = IdentifierKey.of("plugin", "handler");
+
+        metrics.recordInvocation(String.class);
+        metrics.recordHandler(String.class, handler, 1_000);
+        metrics.recordHandler(String.class, handler, 3_000);
+        metrics.recordListenersScheduled(String.class, 2);
+        metrics.recordListener(String.class, IdentifierKey.of("plugin", "listener"), 10, null);
+
+        var name = JmxCallbackMetrics.getObjectName(String.class);
+        assertTrue(server.isRegistered(name));
+        assertEquals(1L, server.getAttribute(name, "InvocationCount"));
+        assertEquals(1L, server.getAttribute(name, "ListenerTasksInFlight"));
+
+        var handlerCounts = (TabularData) server.getAttribute(name, "HandlerCounts");
+        assertEquals(2L, handlerCounts.get(new Object[] { "plugin:handler" }).get("value"));
+    }
+
+    @Test
+    void unregistersStatisticsOfUnloadedTypes() throws JMException {
+        var server = MBeanServerFactory.newMBeanServer();
+        var metrics = new JmxCallbackMetrics(server);
+
+        metrics.recordInvocation(String.class);
+        metrics.recordInvocation(Integer.class);
+        metrics.recordInvocation(JmxCallbackMetricsTest.class);
+
+        metrics.unregister(String.class);
+        assertFalse(server.isRegistered(JmxCallbackMetrics.getObjectName(String.class)));
+        assertEquals(2, metrics.getAllStatistics().size());
+
+        metrics.unregister(JmxCallbackMetricsTest.class.getClassLoader());
+        assertFalse(server.isRegistered(JmxCallbackMetrics.getObjectName(JmxCallbackMetricsTest.class)));
+        assertTrue(server.isRegistered(JmxCallbackMetrics.getObjectName(Integer.class)));
+
+        metrics.close();
+        assertFalse(server.isRegistered(JmxCallbackMetrics.getObjectName(Integer.class)));
+        assertTrue(metrics.getAllStatistics().isEmpty());
+    }
+
+    @Test
+    void reportsPercentilesWithinBucketBounds() {
+        var histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 100L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(10_000, histogram.getMaxNanos());
+        assertEquals(5_050, histogram.getMeanNanos());
+
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 5_000 && p50 < 10_000, "p50 = " + p50);
+        assertEquals(10_000, histogram.getPercentileNanos(100));
+    }
+
+}
@@ -0,0 +1,54 @@
+package ovh.mythmc.callbacks.pool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+final class EventPoolTest {
+
+    @Test
+    void reusesReleasedObjectsOnce() {
+        var pool = new EventPool<StringBuilder>(2);
+        var first = new StringBuilder();
+        var second = new StringBuilder();
+
+        pool.offer(first);
+        pool.offer(first);
+        pool.offer(second);
+        pool.offer(new StringBuilder());
+        assertEquals(2, pool.getPooledCount());
+
+        assertSame(second, pool.poll());
+        assertSame(first, pool.poll());
+        assertNull(pool.poll());
+    }
+
+    @Test
+    void keepsObjectsPerThread() throws InterruptedException {
+        var pool = new EventPool<StringBuilder>();
+        pool.offer(new StringBuilder());
+
+        var polled = new AtomicReference<StringBuilder>(new StringBuilder());
+        var otherThread = new Thread(() -> polled.set(pool.poll()));
+        otherThread.start();
+        otherThread.join();
+
+        assertNull(polled.get());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    void clearsObjectsOfCurrentThread() {
+        var pool = new EventPool<StringBuilder>();
+        pool.offer(new StringBuilder());
+
+        pool.clear();
+        assertEquals(0, pool.getPooledCount());
+        assertNull(pool.poll());
+    }
+
+}
@@ -0,0 +1,42 @@
+package ovh.mythmc.callbacks.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+final class RegistrationScopeTest {
+
+    @Test
+    void closesRegistrationsOnceInReverseOrder() {
+        var closed = new ArrayList<String>();
+        var scope = new RegistrationScope();
+        var first = scope.add(Registration.of(IdentifierKey.of("test", "first"), () -> closed.add("first")));
+        scope.add(Registration.of(IdentifierKey.of("test", "second"), () -> closed.add("second")));
+
+        first.close();
+        scope.close();
+        scope.close();
+
+        assertEquals(List.of("first", "second"), closed);
+        assertTrue(scope.isClosed());
+    }
+
+    @Test
+    void closesRegistrationsAddedAfterClosing() {
+        var closed = new ArrayList<String>();
+        var scope = new RegistrationScope();
+        scope.close();
+
+        var late = scope.add(Registration.of(IdentifierKey.of("test", "late"), () -> closed.add("late")));
+
+        assertTrue(late.isClosed());
+        assertEquals(List.of("late"), closed);
+    }
+
+}
@@ -0,0 +1,46 @@
+package ovh.mythmc.callbacks.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import ovh.mythmc.callbacks.key.IdentifierKey;
+
+final class RegistrationTest {
+
+    @Test
+    void closesOnceOwnerIsCollected() throws InterruptedException {
+        var unregistered = new AtomicInteger();
+        var registration = Registration.of(IdentifierKey.of("test", "bound"), unregistered::incrementAndGet)
+            .bindTo(new Object());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!registration.isClosed() && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertTrue(registration.isClosed());
+        assertEquals(1, unregistered.get());
+    }
+
+    @Test
+    void unregistersOnceWhenClosedBeforeOwnerIsCollected() {
+        var unregistered = new AtomicInteger();
+        var owner = new Object();
+        var registration = Registration.of(IdentifierKey.of("test", "bound"), unregistered::incrementAndGet)
+            .bindTo(owner);
+
+        registration.close();
+        registration.close();
+
+        assertEquals(1, unregistered.get());
+        assertThrows(IllegalStateException.class, () -> registration.bindTo(owner));
+    }
+
+}